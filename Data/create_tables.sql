@@ -6,7 +6,8 @@ CREATE TABLE `AUTHORS` (
   `Author_id`   BIGINT          NOT NULL    AUTO_INCREMENT,
   `Name`        VARCHAR(255)    DEFAULT NULL,
   PRIMARY KEY (`Author_id`),
-  UNIQUE KEY `name_key` (`Name`)
+  UNIQUE KEY `name_key` (`Name`),
+  FULLTEXT KEY `name_fulltext` (`Name`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
 CREATE TABLE `BOOK` (
@@ -16,7 +17,8 @@ CREATE TABLE `BOOK` (
   `Publisher`   VARCHAR(255)    DEFAULT NULL,
   `Pages`       INT             DEFAULT 0,
   `Available`   BIT             DEFAULT 1,
-  PRIMARY KEY (`Isbn`)
+  PRIMARY KEY (`Isbn`),
+  FULLTEXT KEY `title_fulltext` (`Title`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
 CREATE TABLE `BOOK_AUTHORS` (
@@ -36,6 +38,7 @@ CREATE TABLE `BORROWER` (
   `City`        VARCHAR(255)    NOT NULL,
   `State`       VARCHAR(2)      NOT NULL,
   `Phone`       VARCHAR(255)    NOT NULL,
+  `Active_loans` INT            NOT NULL    DEFAULT 0,
   PRIMARY KEY (`Card_id`),
   UNIQUE KEY `ssn_key` (`Ssn`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
@@ -48,6 +51,7 @@ CREATE TABLE `BOOK_LOANS` (
   `Due_date`    DATE            NOT NULL,
   `Date_in`     DATE,
   PRIMARY KEY (`Loan_id`),
+  KEY `loan_date_in` (`Date_in`),
   CONSTRAINT `borrower_foreign_key` FOREIGN KEY (`Card_id`) REFERENCES `BORROWER` (`Card_id`),
   CONSTRAINT `loan_book_foreign_key` FOREIGN KEY (`Isbn`) REFERENCES `BOOK` (`Isbn`),
   CHECK (`Due_date` > `Date_out`),
@@ -58,5 +62,78 @@ CREATE TABLE `FINES` (
   `Loan_id`     BIGINT          NOT NULL,
   `Fine_amt`    DECIMAL(10,2)   NOT NULL,
   `Paid`        BIT             DEFAULT 0,
+  PRIMARY KEY (`Loan_id`),
   CONSTRAINT `loan_foreign_key` FOREIGN KEY (`Loan_id`) REFERENCES `BOOK_LOANS` (`Loan_id`)
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
\ No newline at end of file
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE `IMPORT_JOB` (
+  `Job_id`      BIGINT          NOT NULL    AUTO_INCREMENT,
+  `Status`      VARCHAR(16)     NOT NULL,
+  `Checkpoint`  BIGINT          NOT NULL    DEFAULT 0,
+  `Inserted`    INT             NOT NULL    DEFAULT 0,
+  `Skipped`     INT             NOT NULL    DEFAULT 0,
+  `Rejected`    INT             NOT NULL    DEFAULT 0,
+  `Reject_file` VARCHAR(255)    DEFAULT NULL,
+  `Error`       VARCHAR(1024)   DEFAULT NULL,
+  `Created_at`  DATETIME        NOT NULL,
+  `Updated_at`  DATETIME        NOT NULL,
+  PRIMARY KEY (`Job_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE `CARD_ID_SEQUENCE` (
+  `Name`        VARCHAR(32)     NOT NULL,
+  `Next_value`  BIGINT          NOT NULL,
+  PRIMARY KEY (`Name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE `FINE_WATERMARK` (
+  `Name`        VARCHAR(32)     NOT NULL,
+  `Accrued_on`  DATE            NOT NULL,
+  PRIMARY KEY (`Name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE `JOB_LEASE` (
+  `Name`        VARCHAR(32)     NOT NULL,
+  `Owner`       VARCHAR(128)    NOT NULL,
+  `Expires_at`  DATETIME        NOT NULL,
+  PRIMARY KEY (`Name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE `FINE_RUN` (
+  `Run_id`      BIGINT          NOT NULL    AUTO_INCREMENT,
+  `Status`      VARCHAR(16)     NOT NULL,
+  `Since`       DATE            NOT NULL,
+  `Accrued_on`  DATE            NOT NULL,
+  `Chunks`      INT             NOT NULL,
+  `Chunks_done` INT             NOT NULL    DEFAULT 0,
+  `Created`     INT             NOT NULL    DEFAULT 0,
+  `Updated`     INT             NOT NULL    DEFAULT 0,
+  `Error`       VARCHAR(1024)   DEFAULT NULL,
+  `Started_at`  DATETIME        NOT NULL,
+  `Finished_at` DATETIME        DEFAULT NULL,
+  PRIMARY KEY (`Run_id`),
+  KEY `fine_run_status` (`Status`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE `FINE_RUN_CHUNK` (
+  `Run_id`        BIGINT        NOT NULL,
+  `Chunk_no`      INT           NOT NULL,
+  `First_loan_id` BIGINT        NOT NULL,
+  `Last_loan_id`  BIGINT        NOT NULL,
+  `Status`        VARCHAR(16)   NOT NULL,
+  `Attempts`      INT           NOT NULL    DEFAULT 0,
+  `Owner`         VARCHAR(128)  DEFAULT NULL,
+  `Claimed_at`    DATETIME      DEFAULT NULL,
+  `Elapsed_ms`    BIGINT        NOT NULL    DEFAULT 0,
+  `Error`         VARCHAR(1024) DEFAULT NULL,
+  PRIMARY KEY (`Run_id`, `Chunk_no`),
+  CONSTRAINT `chunk_run_foreign_key` FOREIGN KEY (`Run_id`) REFERENCES `FINE_RUN` (`Run_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE `BORROWER_FINE_BALANCE` (
+  `Card_id`     VARCHAR(255)    NOT NULL,
+  `Unpaid_amt`  DECIMAL(10,2)   NOT NULL    DEFAULT 0,
+  `Paid_amt`    DECIMAL(10,2)   NOT NULL    DEFAULT 0,
+  PRIMARY KEY (`Card_id`),
+  CONSTRAINT `balance_borrower_foreign_key` FOREIGN KEY (`Card_id`) REFERENCES `BORROWER` (`Card_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
@@ -6,57 +6,35 @@ import time
 input_file = 'books.csv'
 input_file2 = 'borrowers.csv'
 
-books_request = '''{
-    "isbn": "%s",
-    "title": "%s",
-    "coverUrl": "%s",
-    "authors": [%s],
-    "available": true
-}'''
-
-authors_request = '''{
-    "name": "%s"
-}'''
-
 data = []
 with open(input_file, mode='r', newline='\n') as file:
     reader = csv.DictReader(file, delimiter='\t')
     for row in reader:
         data.append(row)
 
-def get_authors(authors):
-    author_list = authors.split(',')
-    request_list = []
-    request_list_string = ""
-    for author in author_list:
-        request_list_string = request_list_string + authors_request % author
-        request_list_string = request_list_string + ","
-    return request_list_string[:-1]
-
-def add_books(request):
-    url = 'http://127.0.0.1:8080/addBooks'
-    request = "[%s]" % request
-    response = requests.post(url, json=json.loads(request))
-    if (response.text != "true"):
-        print(request)
-        return False
-    else:
-        print("Done")
+def book_lines():
+    for row in data:
+        authors = [{"name": a.strip()} for a in row['Authro'].split(',') if a != '' and a != '(None)']
+        book = {"isbn": row['ISBN13'], "title": row['Title'], "coverUrl": row['Cover'],
+                "publisher": row['Publisher'], "pages": int(row['Pages']), "authors": authors, "available": True}
+        yield (json.dumps(book) + "\n").encode('utf-8')
 
-request_list = []
-count = 10
-for row in data:
-    authors = get_authors(row['Authro'])
-    request = books_request % (row['ISBN13'],row['Title'],row['Cover'],authors)
-    request_list.append(request)
-    count -= 1
-    if (count == 0):
-        count = 10
-        done = add_books(",".join(request_list))
-        if done == False:
-            break
-        request_list = []
-add_books(",".join(request_list))
+# Streams every book in one import job. A failed run is resumed from the job's checkpoint,
+# rows the server rejects are listed in the job's reject file.
+url = 'http://127.0.0.1:8080/books/import'
+job_id = None
+for attempt in range(3):
+    params = {} if job_id is None else {'jobId': job_id}
+    response = requests.post(url, params=params, data=book_lines(),
+                             headers={'Content-Type': 'application/x-ndjson'})
+    report = response.json()
+    job_id = report['jobId']
+    if report['status'] == 'COMPLETED':
+        total = report['total']
+        print("Job %d: inserted %d of %d books, %d rejected (%s), %.0f rows/s" % (job_id, total['inserted'],
+              total['books'], report['rejected'], report['rejectFile'], total['rowsPerSecond']))
+        break
+    print("Job %d failed at record %d: %s" % (job_id, report['checkpoint'], report['error']))
 #     url = 'http://127.0.0.1:8080/addBook'
 #     response = requests.post(url, json=json.loads(request))
 #     break
\ No newline at end of file
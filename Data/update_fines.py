@@ -1,7 +1,8 @@
 import requests
 
+# The application accrues fines on its own schedule (librarysystem.fines.cron).
+# This starts a run right away and prints its progress.
 url = 'http://127.0.0.1:8080/updateFines'
 response = requests.post(url)
 print(response.text)
-
-# 0 0 * * * python3 update_fines.py
\ No newline at end of file
+print(requests.get('http://127.0.0.1:8080/fines/runs/latest').text)
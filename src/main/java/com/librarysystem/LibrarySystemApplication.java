@@ -2,8 +2,10 @@ package com.librarysystem;
 
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class LibrarySystemApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,21 @@
+package com.librarysystem.db.dao;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+// Maps a DECIMAL(10,2) amount to long cents, exactly in both directions.
+@Converter
+public class FineCentsConverter implements AttributeConverter<Long, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Long cents) {
+        return cents == null ? null : BigDecimal.valueOf(cents, 2);
+    }
+
+    @Override
+    public Long convertToEntityAttribute(BigDecimal amount) {
+        return amount == null ? null : amount.movePointRight(2).longValueExact();
+    }
+}
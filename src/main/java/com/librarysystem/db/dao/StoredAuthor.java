@@ -1,6 +1,8 @@
 package com.librarysystem.db.dao;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -8,6 +10,8 @@ import java.util.Set;
 
 @Entity
 @Table(name = "AUTHORS")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "author")
 public class StoredAuthor {
     @Id
     @Column(name = "Author_id")
@@ -15,7 +19,8 @@ public class StoredAuthor {
     private Long id;
     @Column(name = "Name")
     private String name;
-    @ManyToMany(cascade = CascadeType.MERGE, fetch = FetchType.EAGER)
+    @ManyToMany(cascade = CascadeType.MERGE, fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "author.books")
     @JoinTable(
             name = "BOOK_AUTHORS",
             joinColumns = @JoinColumn(name = "Author_id"),
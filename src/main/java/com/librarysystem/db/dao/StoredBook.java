@@ -1,12 +1,25 @@
 package com.librarysystem.db.dao;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "BOOK")
+// BOOK.Available is left unmapped: it changes with every checkout and check-in, so a cached copy would
+// go stale. Read it with BookRepository.isAvailable.
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book")
+@NamedEntityGraph(
+        name = "StoredBook.loans",
+        attributeNodes = @NamedAttributeNode(value = "loans", subgraph = "loan"),
+        // the fine is the inverse side of its one-to-one and would otherwise be selected per loan
+        subgraphs = @NamedSubgraph(name = "loan", attributeNodes = {
+                @NamedAttributeNode("borrower"), @NamedAttributeNode("fine")})
+)
 public class StoredBook {
     @Id
     @Column(name = "Isbn")
@@ -19,15 +32,14 @@ public class StoredBook {
     private String publisher;
     @Column(name = "Pages")
     private int pages;
-    @ManyToMany(mappedBy = "books", fetch = FetchType.EAGER, cascade = CascadeType.MERGE)
+    @ManyToMany(mappedBy = "books", fetch = FetchType.LAZY, cascade = CascadeType.MERGE)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book.authors")
     private List<StoredAuthor> authors = new ArrayList<>();
-    @OneToMany(mappedBy = "book", fetch = FetchType.EAGER, cascade = CascadeType.MERGE)
+    @OneToMany(mappedBy = "book", fetch = FetchType.LAZY, cascade = CascadeType.MERGE)
     private List<StoredLoan> loans;
-    @Column(name = "Available")
-    private boolean available;
 
     public StoredBook(String isbn, String title, String coverUrl, String publisher, int pages,
-                      List<StoredAuthor> authors, List<StoredLoan> loans, boolean available) {
+                      List<StoredAuthor> authors, List<StoredLoan> loans) {
         this.isbn = isbn;
         this.title = title;
         this.coverUrl = coverUrl;
@@ -35,7 +47,6 @@ public class StoredBook {
         this.pages = pages;
         this.authors = authors;
         this.loans = loans;
-        this.available = available;
     }
 
     public StoredBook() {
@@ -65,10 +76,6 @@ public class StoredBook {
         return pages;
     }
 
-    public boolean isAvailable() {
-        return available;
-    }
-
     public void setAuthors(List<StoredAuthor> authors) {
         this.authors = authors;
     }
@@ -76,8 +83,4 @@ public class StoredBook {
     public List<StoredLoan> getLoans() {
         return loans;
     }
-
-    public void setAvailable(boolean available) {
-        this.available = available;
-    }
 }
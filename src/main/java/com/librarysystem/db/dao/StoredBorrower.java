@@ -24,7 +24,7 @@ public class StoredBorrower {
     private String city;
     @Column(name = "Phone")
     private String phone;
-    @OneToMany(fetch = FetchType.EAGER, mappedBy = "borrower")
+    @OneToMany(fetch = FetchType.LAZY, mappedBy = "borrower")
     private List<StoredLoan> loans;
 
     public StoredBorrower() {
@@ -0,0 +1,101 @@
+package com.librarysystem.db.dao;
+
+import jakarta.persistence.*;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+
+@Entity
+@Table(name = "FINE_RUN")
+public class StoredFineRun {
+    public static final String RUNNING = "RUNNING";
+    public static final String FAILED = "FAILED";
+    public static final String COMPLETED = "COMPLETED";
+
+    @Id
+    @Column(name = "Run_id")
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "Status")
+    private String status;
+    // Loans returned before this day are skipped, their fines were final at the previous run.
+    @Column(name = "Since")
+    private Date since;
+    @Column(name = "Accrued_on")
+    private Date accruedOn;
+    @Column(name = "Chunks")
+    private int chunks;
+    @Column(name = "Chunks_done")
+    private int chunksDone;
+    @Column(name = "Created")
+    private int created;
+    @Column(name = "Updated")
+    private int updated;
+    @Column(name = "Error")
+    private String error;
+    @Column(name = "Started_at")
+    private Timestamp startedAt;
+    @Column(name = "Finished_at")
+    private Timestamp finishedAt;
+
+    public StoredFineRun() {
+    }
+
+    public StoredFineRun(Date since, Date accruedOn, int chunks, Timestamp startedAt) {
+        this.status = RUNNING;
+        this.since = since;
+        this.accruedOn = accruedOn;
+        this.chunks = chunks;
+        this.startedAt = startedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Date getSince() {
+        return since;
+    }
+
+    public Date getAccruedOn() {
+        return accruedOn;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public int getChunksDone() {
+        return chunksDone;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public Timestamp getStartedAt() {
+        return startedAt;
+    }
+
+    public Timestamp getFinishedAt() {
+        return finishedAt;
+    }
+
+    // Until now while the run is going
+    public long getElapsedMillis() {
+        long end = finishedAt == null ? System.currentTimeMillis() : finishedAt.getTime();
+        return end - startedAt.getTime();
+    }
+}
@@ -0,0 +1,90 @@
+package com.librarysystem.db.dao;
+
+import jakarta.persistence.*;
+
+import java.sql.Timestamp;
+
+@Entity
+@Table(name = "IMPORT_JOB")
+public class StoredImportJob {
+    public static final String RUNNING = "RUNNING";
+    public static final String FAILED = "FAILED";
+    public static final String COMPLETED = "COMPLETED";
+
+    @Id
+    @Column(name = "Job_id")
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "Status")
+    private String status;
+    // Number of input records handled by committed batches; a resumed job skips this many.
+    @Column(name = "Checkpoint")
+    private long checkpoint;
+    @Column(name = "Inserted")
+    private int inserted;
+    @Column(name = "Skipped")
+    private int skipped;
+    @Column(name = "Rejected")
+    private int rejected;
+    @Column(name = "Reject_file")
+    private String rejectFile;
+    @Column(name = "Error")
+    private String error;
+    @Column(name = "Created_at")
+    private Timestamp createdAt;
+    @Column(name = "Updated_at")
+    private Timestamp updatedAt;
+
+    public StoredImportJob() {
+    }
+
+    public StoredImportJob(String status, Timestamp createdAt) {
+        this.status = status;
+        this.createdAt = createdAt;
+        this.updatedAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public long getCheckpoint() {
+        return checkpoint;
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public String getRejectFile() {
+        return rejectFile;
+    }
+
+    public void setRejectFile(String rejectFile) {
+        this.rejectFile = rejectFile;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public Timestamp getCreatedAt() {
+        return createdAt;
+    }
+
+    public Timestamp getUpdatedAt() {
+        return updatedAt;
+    }
+}
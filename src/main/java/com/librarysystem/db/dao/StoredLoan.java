@@ -6,22 +6,23 @@ import java.sql.Date;
 
 @Entity
 @Table(name = "BOOK_LOANS")
+@NamedEntityGraph(name = "StoredLoan.fine", attributeNodes = @NamedAttributeNode("fine"))
 public class StoredLoan {
     @Id
     @Column(name = "Loan_id")
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
-    @ManyToOne(fetch = FetchType.EAGER,
+    @ManyToOne(fetch = FetchType.LAZY,
             cascade = CascadeType.MERGE,
             optional = false)
     @JoinColumn(name = "Isbn")
     private StoredBook book;
-    @ManyToOne(fetch = FetchType.EAGER,
+    @ManyToOne(fetch = FetchType.LAZY,
             cascade = CascadeType.MERGE,
             optional = false)
     @JoinColumn(name = "Card_id")
     private StoredBorrower borrower;
-    @OneToOne(fetch = FetchType.EAGER,
+    @OneToOne(fetch = FetchType.LAZY,
             cascade = CascadeType.MERGE,
             mappedBy = "loan")
     private StoredFine fine;
@@ -79,42 +80,6 @@ public class StoredLoan {
         return this.id.longValue() == ((StoredLoan) loan).getId().longValue();
     }
 
-    public String[] displayString() {
-        return new String[]{
-                String.valueOf(id),
-                book.getIsbn(),
-                book.getTitle(),
-                borrower.getCardId(),
-                borrower.getName(),
-                dateOut.toString(),
-                dueDate.toString(),
-                dateIn == null ? "" : dateIn.toString()
-        };
-    }
-
-    public String getLoanInfoString() {
-        return String.format
-                (
-                        "ID: %d\n" +
-                        "ISBN: %s\n" +
-                        "Title: %s\n" +
-                        "Borrower ID: %s\n" +
-                        "Borrower Name: %s\n" +
-                        "Checkout Date: %s\n" +
-                        "Due Date: %s\n" +
-                        "Checkin Date: %s",
-
-                        id,
-                        book.getIsbn(),
-                        book.getTitle(),
-                        borrower.getCardId(),
-                        borrower.getName(),
-                        dateOut.toString(),
-                        dueDate.toString(),
-                        dateIn == null ? "" : dateIn.toString()
-                );
-    }
-
     public void setDateIn(Date dateIn) {
         this.dateIn = dateIn;
     }
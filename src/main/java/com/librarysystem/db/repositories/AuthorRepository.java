@@ -1,18 +1,19 @@
 package com.librarysystem.db.repositories;
 
 import com.librarysystem.db.dao.StoredAuthor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface AuthorRepository extends JpaRepository<StoredAuthor, String> {
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "query.author-by-name")
+    })
     Optional<StoredAuthor> getAuthorByName(String name);
-
-    @Query(value = "SELECT * FROM AUTHORS WHERE LOWER(Name) LIKE %:name% LIMIT 100", nativeQuery = true)
-    List<StoredAuthor> getAuthorsMatchingName(@Param("name") String name);
 }
@@ -1,22 +1,42 @@
 package com.librarysystem.db.repositories;
 
 import com.librarysystem.db.dao.StoredBook;
+import com.librarysystem.models.BookSummary;
+import com.librarysystem.models.CatalogEntry;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface BookRepository extends JpaRepository<StoredBook, String> {
-    @Query(value = "SELECT * FROM BOOK WHERE LOWER(Isbn) LIKE %:bookId% LIMIT 100", nativeQuery = true)
-    List<StoredBook> getBooksMatchingId(@Param("bookId") String bookId);
+    @Query(value = "SELECT b.Isbn isbn, b.Title title, GROUP_CONCAT(a.Name) authors, b.Available available " +
+            "FROM BOOK AS b LEFT JOIN BOOK_AUTHORS AS ba ON b.Isbn = ba.Isbn " +
+            "LEFT JOIN AUTHORS AS a ON ba.Author_id = a.Author_id " +
+            "WHERE b.Isbn IN (:isbns) " +
+            "GROUP BY b.Isbn, b.Title, b.Available", nativeQuery = true)
+    List<BookSummary> getBookSummaries(@Param("isbns") Collection<String> isbns);
 
-    @Query(value = "SELECT * FROM BOOK WHERE LOWER(Title) LIKE %:title% LIMIT 100", nativeQuery = true)
-    List<StoredBook> getBooksMatchingTitle(@Param("title") String title);
+    @Query(value = "SELECT Available FROM BOOK WHERE Isbn = :isbn", nativeQuery = true)
+    boolean isAvailable(@Param("isbn") String isbn);
 
-    @Query(value = "SELECT * FROM BOOK WHERE Isbn = :isbn", nativeQuery = true)
-    Optional<StoredBook> getBookByIsbn(@Param("isbn") String isbn);
+    // Available is not mapped on StoredBook, so new books get it set with this after the insert.
+    @Modifying
+    @Query(value = "UPDATE BOOK SET Available = :available WHERE Isbn = :isbn", nativeQuery = true)
+    int setAvailable(@Param("isbn") String isbn, @Param("available") boolean available);
+
+    @EntityGraph("StoredBook.loans")
+    Optional<StoredBook> findDetailByIsbn(String isbn);
+
+    @Query(value = "SELECT b.Isbn isbn, b.Title title, GROUP_CONCAT(a.Name) authors, b.Available available " +
+            "FROM BOOK AS b LEFT JOIN BOOK_AUTHORS AS ba ON b.Isbn = ba.Isbn " +
+            "LEFT JOIN AUTHORS AS a ON ba.Author_id = a.Author_id " +
+            "GROUP BY b.Isbn, b.Title, b.Available", nativeQuery = true)
+    List<CatalogEntry> getCatalogEntries();
 }
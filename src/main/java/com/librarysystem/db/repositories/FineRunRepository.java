@@ -0,0 +1,18 @@
+package com.librarysystem.db.repositories;
+
+import com.librarysystem.db.dao.StoredFineRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface FineRunRepository extends JpaRepository<StoredFineRun, Long> {
+
+    @Query(value = "SELECT Run_id FROM FINE_RUN WHERE Status = 'RUNNING' ORDER BY Run_id LIMIT 1", nativeQuery = true)
+    Optional<Long> findRunning();
+
+    @Query(value = "SELECT * FROM FINE_RUN ORDER BY Run_id DESC LIMIT 1", nativeQuery = true)
+    Optional<StoredFineRun> findLatest();
+}
@@ -0,0 +1,28 @@
+package com.librarysystem.db.repositories;
+
+import com.librarysystem.db.dao.StoredImportJob;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<StoredImportJob, Long> {
+
+    // Runs in the transaction of the batch it records, so the checkpoint never gets ahead of the data.
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE IMPORT_JOB SET Checkpoint = GREATEST(Checkpoint, :checkpoint), Inserted = Inserted + :inserted, " +
+            "Skipped = Skipped + :skipped, Rejected = Rejected + :rejected, Updated_at = CURRENT_TIMESTAMP " +
+            "WHERE Job_id = :jobId", nativeQuery = true)
+    int checkpoint(@Param("jobId") long jobId, @Param("checkpoint") long checkpoint, @Param("inserted") int inserted,
+                   @Param("skipped") int skipped, @Param("rejected") int rejected);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE IMPORT_JOB SET Status = :status, Error = :error, Updated_at = CURRENT_TIMESTAMP " +
+            "WHERE Job_id = :jobId", nativeQuery = true)
+    int setStatus(@Param("jobId") long jobId, @Param("status") String status, @Param("error") String error);
+}
@@ -1,8 +1,9 @@
 package com.librarysystem.db.repositories;
 
 import com.librarysystem.db.dao.StoredLoan;
-import com.librarysystem.models.FineSummary;
+import com.librarysystem.models.LoanSummary;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,27 +15,22 @@ import java.util.Optional;
 @Repository
 public interface LoanRepository extends JpaRepository<StoredLoan, Long> {
 
-    @Query(value = "SELECT * FROM BOOK_LOANS WHERE LOWER(Isbn) LIKE %:isbn%", nativeQuery = true)
-    List<StoredLoan> getLoanByMatchingIsbn(@Param("isbn") String isbn);
-
-    @Query(value = "SELECT * FROM BOOK_LOANS WHERE LOWER(Card_id) LIKE %:borrowerId%", nativeQuery = true)
-    List<StoredLoan> getLoanByMatchingBorrowerId(@Param("borrowerId") String borrowerId);
-
-    @Query(value = "SELECT * FROM BOOK_LOANS " +
-            "WHERE (Date_in IS NULL AND CURRENT_DATE() > Due_date) "+
-            "OR Due_date < Date_in", nativeQuery = true)
-    List<StoredLoan> getOverdueLoans();
+    @Query(value = "SELECT " +
+            "l.Loan_id loanId, l.Isbn isbn, b.Title title, l.Card_id cardId, br.Bname borrowerName, " +
+            "l.Date_out dateOut, l.Due_date dueDate, l.Date_in dateIn " +
+            "FROM BOOK_LOANS AS l JOIN BOOK AS b ON l.Isbn = b.Isbn " +
+            "JOIN BORROWER AS br ON l.Card_id = br.Card_id " +
+            "WHERE (LOWER(l.Isbn) LIKE %:query% OR LOWER(l.Card_id) LIKE %:query% OR LOWER(br.Bname) LIKE %:query%) " +
+            "AND (:openOnly = FALSE OR l.Date_in IS NULL) " +
+            "AND l.Loan_id > :afterLoanId " +
+            "ORDER BY l.Loan_id LIMIT :limit", nativeQuery = true)
+    List<LoanSummary> searchLoans(@Param("query") String query, @Param("openOnly") boolean openOnly,
+                                  @Param("afterLoanId") long afterLoanId, @Param("limit") int limit);
 
     @Query(value = "SELECT * FROM BOOK_LOANS WHERE Loan_id = :loanId", nativeQuery = true)
     Optional<StoredLoan> getLoanById(@Param("loanId") long loanId);
 
-    @Query(value = "SELECT * FROM BOOK_LOANS WHERE Card_id = :cardId", nativeQuery = true)
+    @EntityGraph("StoredLoan.fine")
+    @Query("SELECT l FROM StoredLoan l WHERE l.borrower.cardId = :cardId")
     List<StoredLoan> getLoansByBorrowerId(@Param("cardId") String cardId);
-
-    @Query(value = "SELECT " +
-            "l.Card_id cardId, f.Paid paid, SUM(f.Fine_amt) amount " +
-            "FROM BOOK_LOANS AS l JOIN FINES AS f " +
-            "ON l.Loan_id = f.Loan_id " +
-            "GROUP BY l.Card_id, f.Paid", nativeQuery = true)
-    List<FineSummary> getFineSummaries();
 }
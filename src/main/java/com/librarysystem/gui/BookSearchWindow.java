@@ -1,6 +1,7 @@
 package com.librarysystem.gui;
 
 import com.librarysystem.models.Book;
+import com.librarysystem.models.BookSummary;
 import com.librarysystem.models.Response;
 import com.librarysystem.services.DatabaseService;
 
@@ -10,11 +11,9 @@ import javax.swing.table.TableModel;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
-// TODO: add feature to search the intersection. Eg, all books named "GOOD BOOK" by "JOHN"
 public class BookSearchWindow extends JFrame {
 
     private static final String[] searchResultsColumnNames = {"ISBN", "Title", "Authors", "Available"};
@@ -55,14 +54,7 @@ public class BookSearchWindow extends JFrame {
     }
 
     private void populateTable(JTable table, String searchQuery) {
-        final List<Book> searchResults = new ArrayList<>();
-        for (String s : searchQuery.split(" ")) {
-            if (s.isEmpty()) continue;
-            searchResults.addAll(
-                    databaseService.getBooksForSearchQuery(s.trim().toLowerCase())
-                            .stream().distinct().toList()
-            );
-        }
+        final List<BookSummary> searchResults = databaseService.getBooksForSearchQuery(searchQuery);
 
         String[][] tableData = new String[searchResults.size()][4];
         for (int i = 0; i < searchResults.size(); i++) {
@@ -104,8 +96,7 @@ public class BookSearchWindow extends JFrame {
                 int row = table.rowAtPoint(point);
                 if (mouseEvent.getClickCount() == 2 && table.getSelectedRow() != -1) {
                     String isbn = tableData[row][0];
-                    Book book = searchResults.stream().filter(b -> b.getIsbn().equals(isbn)).findFirst().get();
-                    showBookInfoFrame(book);
+                    databaseService.getBookById(isbn).ifPresent(book -> showBookInfoFrame(book));
                 }
             }
         });
@@ -1,6 +1,7 @@
 package com.librarysystem.gui;
 
-import com.librarysystem.db.dao.StoredLoan;
+import com.librarysystem.models.CheckinResult;
+import com.librarysystem.models.LoanSummary;
 import com.librarysystem.models.Response;
 import com.librarysystem.services.DatabaseService;
 
@@ -11,7 +12,9 @@ import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class CheckinSearchWindow extends JFrame {
 
@@ -21,9 +24,11 @@ public class CheckinSearchWindow extends JFrame {
         };
 
     private DatabaseService databaseService;
+    private boolean openLoansOnly;
 
-    public CheckinSearchWindow(String searchQuery, DatabaseService databaseService) {
+    public CheckinSearchWindow(String searchQuery, boolean openLoansOnly, DatabaseService databaseService) {
         this.databaseService = databaseService;
+        this.openLoansOnly = openLoansOnly;
         initialiseWithData(searchQuery);
     }
 
@@ -57,14 +62,13 @@ public class CheckinSearchWindow extends JFrame {
     }
 
     private void populateTable(JTable table, String searchQuery) {
-        final List<StoredLoan> searchResults = new ArrayList<>();
+        final Map<Long, LoanSummary> uniqueResults = new LinkedHashMap<>();
         for (String s : searchQuery.split(" ")) {
             if (s.isEmpty()) continue;
-            searchResults.addAll(
-                    databaseService.getBookLoansForSearchQuery(s.trim().toLowerCase())
-                            .stream().distinct().toList()
-            );
+            databaseService.getBookLoansForSearchQuery(s.trim().toLowerCase(), openLoansOnly)
+                    .forEach(l -> uniqueResults.putIfAbsent(l.getLoanId(), l));
         }
+        final List<LoanSummary> searchResults = new ArrayList<>(uniqueResults.values());
 
         String[][] tableData = new String[searchResults.size()][6];
         for (int i = 0; i < searchResults.size(); i++) {
@@ -98,7 +102,7 @@ public class CheckinSearchWindow extends JFrame {
             }
         };
         table.setModel(jTableModel);
-        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         table.addMouseListener(new MouseAdapter() {
             public void mousePressed(MouseEvent mouseEvent) {
                 JTable table = (JTable) mouseEvent.getSource();
@@ -106,9 +110,7 @@ public class CheckinSearchWindow extends JFrame {
                 int row = table.rowAtPoint(point);
                 if (mouseEvent.getClickCount() == 2 && table.getSelectedRow() != -1) {
                     long loanId = Long.parseLong(tableData[row][0]);
-                    StoredLoan loan = searchResults.stream()
-                            .filter(l -> l.getId().equals(loanId)).findFirst().get();
-                    showLoanInfoFrame(loan);
+                    showLoanInfoFrame(uniqueResults.get(loanId));
                 }
             }
         });
@@ -125,23 +127,43 @@ public class CheckinSearchWindow extends JFrame {
         JButton checkinButton = new JButton("Checkin");
         checkinButton.setBounds(30, 665, 100, 20);
         checkinButton.addActionListener(listener -> {
-            int[] selectedRow = table.getSelectedRows();
-            if (selectedRow.length == 0) {
+            int[] selectedRows = table.getSelectedRows();
+            if (selectedRows.length == 0) {
                 MainWindow.showResponseFrame(new Response("Please select a row"));
                 return;
             }
-            if (((String) (table.getValueAt(selectedRow[0], 7))).length() != 0) { 
-                MainWindow.showResponseFrame(new Response("Book already checked in"));
+            List<Long> loanIds = new ArrayList<>();
+            for (int row : selectedRows) {
+                if (((String) (table.getValueAt(row, 7))).length() != 0) continue;
+                loanIds.add(Long.parseLong((String) table.getValueAt(row, 0)));
+            }
+            if (loanIds.isEmpty()) {
+                MainWindow.showResponseFrame(new Response(selectedRows.length == 1 ?
+                        "Book already checked in" : "Books already checked in"));
                 return;
             }
-            long loanId = Long.parseLong((String) table.getValueAt(selectedRow[0], 0));
-            Response checkedIn = databaseService.checkin(loanId);
-            MainWindow.showResponseFrame(checkedIn);
+            List<CheckinResult> results = databaseService.checkin(loanIds);
+            long checkedIn = results.stream().filter(CheckinResult::isSuccess).count();
+            // rows already returned were never submitted, so they are reported on their own
+            int skipped = selectedRows.length - loanIds.size();
+            String alreadyIn = skipped == 0 ? "" : String.format(", %s already checked in", books(skipped));
+            if (results.size() == 1 && skipped == 0) {
+                MainWindow.showResponseFrame(checkedIn == 1 ? new Response() : new Response(results.get(0).getErrorMessage()));
+            } else if (checkedIn == results.size()) {
+                MainWindow.showResponseFrame(new Response(true, "Checked in " + books(checkedIn) + alreadyIn));
+            } else {
+                MainWindow.showResponseFrame(new Response(String.format("Checked in %d of %s%s",
+                        checkedIn, books(results.size()), alreadyIn)));
+            }
         });
         content.add(checkinButton);
     }
 
-    private void showLoanInfoFrame(StoredLoan loan) {
+    private static String books(long count) {
+        return count == 1 ? "1 book" : count + " books";
+    }
+
+    private void showLoanInfoFrame(LoanSummary loan) {
         JFrame loanInfoFrame = new JFrame("Loan Info");
         loanInfoFrame.setDefaultCloseOperation(DISPOSE_ON_CLOSE);
         loanInfoFrame.setLayout(new FlowLayout());
@@ -4,6 +4,7 @@ import com.librarysystem.db.dao.StoredLoan;
 import com.librarysystem.models.FineSummary;
 import com.librarysystem.models.Response;
 import com.librarysystem.services.DatabaseService;
+import com.librarysystem.services.FineCalculator;
 
 import javax.swing.*;
 import javax.swing.table.AbstractTableModel;
@@ -125,7 +126,7 @@ public class FineControlPanel extends JFrame {
         for (int i = 0; i < fines.size(); i++) {
             tableData[i][0] = fines.get(i).getCardId();
             tableData[i][1] = fines.get(i).getPaid() ? "Yes" : "No";
-            tableData[i][2] = String.format("%.2f", fines.get(i).getAmount());
+            tableData[i][2] = FineCalculator.format(fines.get(i).getAmountCents());
         }
 
         TableModel jTableModel = new AbstractTableModel() {
@@ -157,14 +158,10 @@ public class FineControlPanel extends JFrame {
         feeTable.setModel(jTableModel);
     }
 
-    private double populateTable(JTable feeTable, String cardId, boolean filterPaid) {
+    private long populateTable(JTable feeTable, String cardId, boolean filterPaid) {
         List<StoredLoan> loans = databaseService.getLoansByBorrowerId(cardId);
-        double totalDue = loans.stream()
-                .filter(l -> l.getFine() != null)
-                .filter(l -> !l.getFine().isPaid())
-                .mapToDouble(l -> l.getFine().getFineAmount())
-                .sum();
-        totalDueLabel.setText(String.format("Total Due: %.2f", totalDue));
+        long totalDue = databaseService.getFinesDueCents(cardId);
+        totalDueLabel.setText("Total Due: " + FineCalculator.format(totalDue));
         List<StoredLoan> filteredLoans = loans.stream()
                 .filter(l -> l.getFine() != null)
                 .filter(l -> {
@@ -179,7 +176,7 @@ public class FineControlPanel extends JFrame {
         String[][] tableData = new String[filteredLoans.size()][3];
         for (int i = 0; i < filteredLoans.size(); i++) {
             tableData[i][0] = String.valueOf(filteredLoans.get(i).getId());
-            tableData[i][1] = String.format("%.2f", filteredLoans.get(i).getFine().getFineAmount());
+            tableData[i][1] = FineCalculator.format(filteredLoans.get(i).getFine().getFineCents());
             tableData[i][2] = filteredLoans.get(i).getFine().isPaid() ? "Yes" : "No";
         }
 
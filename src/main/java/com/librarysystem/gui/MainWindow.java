@@ -6,6 +6,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.util.List;
 
@@ -14,6 +16,8 @@ public class MainWindow extends JFrame { // JFrame is the main window of the app
 
     @Autowired
     private DatabaseService databaseService;
+    // set while a chosen suggestion is written into the search field
+    private boolean applyingSuggestion;
 
     public MainWindow() {
         configure();
@@ -49,14 +53,61 @@ public class MainWindow extends JFrame { // JFrame is the main window of the app
         searchTextInput.setHorizontalAlignment(JTextField.CENTER);
         content.add(searchTextInput);
 
+        JPopupMenu suggestionsPopup = new JPopupMenu();
+        suggestionsPopup.setFocusable(false);
+        searchTextInput.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                if (!applyingSuggestion) showSuggestions(searchTextInput, suggestionsPopup);
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                if (!applyingSuggestion) showSuggestions(searchTextInput, suggestionsPopup);
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
+
         JButton searchBookButton = new JButton("Book Search");
         searchBookButton.setBounds(200, 90, 100, 20);
         searchBookButton.addActionListener(listener -> {
+            suggestionsPopup.setVisible(false);
             showSearchResultsFrame(searchTextInput.getText());
         });
         content.add(searchBookButton);
     }
 
+    private void showSuggestions(JTextField input, JPopupMenu popup) {
+        SwingUtilities.invokeLater(() -> {
+            popup.setVisible(false);
+            popup.removeAll();
+            String text = input.getText();
+            List<String> suggestions = databaseService.getSuggestions(text);
+            if (suggestions.isEmpty()) return;
+            if (suggestions.size() == 1 && suggestions.get(0).equalsIgnoreCase(text.trim())) return;
+            suggestions.forEach(suggestion -> {
+                JMenuItem item = new JMenuItem(suggestion);
+                item.addActionListener(listener -> applySuggestion(input, suggestion));
+                popup.add(item);
+            });
+            popup.show(input, 0, input.getHeight());
+            input.requestFocusInWindow();
+        });
+    }
+
+    // setText fires the document listener, which would open the popup again for the chosen text.
+    private void applySuggestion(JTextField input, String suggestion) {
+        applyingSuggestion = true;
+        try {
+            input.setText(suggestion);
+        } finally {
+            applyingSuggestion = false;
+        }
+    }
+
     private void addCheckoutComponents(Container content) {
         JLabel checkoutLabel = new JLabel("Checkout Book");
         checkoutLabel.setBounds(0, 140, 500, 20);
@@ -101,10 +152,14 @@ public class MainWindow extends JFrame { // JFrame is the main window of the app
         checkinTextInput.setHorizontalAlignment(JLabel.CENTER);
         content.add(checkinTextInput);
 
+        JCheckBox openLoansOnlyCheckBox = new JCheckBox("Open loans only");
+        openLoansOnlyCheckBox.setBounds(310, 340, 140, 20);
+        content.add(openLoansOnlyCheckBox);
+
         JButton checkinBookSearchButton = new JButton("Loan Search");
         checkinBookSearchButton.setBounds(200, 340, 100, 20);
         checkinBookSearchButton.addActionListener(listener -> {
-            showCheckinSearchResultsFrame(checkinTextInput.getText());
+            showCheckinSearchResultsFrame(checkinTextInput.getText(), openLoansOnlyCheckBox.isSelected());
         });
         content.add(checkinBookSearchButton);
     }
@@ -138,8 +193,8 @@ public class MainWindow extends JFrame { // JFrame is the main window of the app
     }
 
 
-    private void showCheckinSearchResultsFrame(String searchQuery) {
-        new CheckinSearchWindow(searchQuery, databaseService);
+    private void showCheckinSearchResultsFrame(String searchQuery, boolean openLoansOnly) {
+        new CheckinSearchWindow(searchQuery, openLoansOnly, databaseService);
     }
 
     private void showSearchResultsFrame(String searchQuery) {
@@ -0,0 +1,21 @@
+package com.librarysystem.models;
+
+import java.util.List;
+
+public class BookSearchPage {
+    private final List<SearchHit> hits;
+    private final String nextCursor;
+
+    public BookSearchPage(List<SearchHit> hits, String nextCursor) {
+        this.hits = hits;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<SearchHit> getHits() {
+        return hits;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,13 @@
+package com.librarysystem.models;
+
+public interface BookSummary {
+    String getIsbn();
+    String getTitle();
+    String getAuthors();
+    Boolean getAvailable();
+
+    default String[] displayString() {
+        return new String[] { getIsbn(), getTitle(), getAuthors() == null ? "" : getAuthors(),
+                Boolean.TRUE.equals(getAvailable()) ? "Yes" : "No" };
+    }
+}
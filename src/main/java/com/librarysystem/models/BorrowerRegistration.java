@@ -0,0 +1,56 @@
+package com.librarysystem.models;
+
+public class BorrowerRegistration {
+    private final String ssn;
+    private final String firstName;
+    private final String lastName;
+    private final String email;
+    private final String address;
+    private final String city;
+    private final String state;
+    private final String phone;
+
+    public BorrowerRegistration(String ssn, String firstName, String lastName, String email, String address,
+                                String city, String state, String phone) {
+        this.ssn = ssn;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.address = address;
+        this.city = city;
+        this.state = state;
+        this.phone = phone;
+    }
+
+    public String getSsn() {
+        return ssn;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+}
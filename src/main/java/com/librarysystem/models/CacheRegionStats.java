@@ -0,0 +1,42 @@
+package com.librarysystem.models;
+
+public class CacheRegionStats {
+    private final String region;
+    private final long hits;
+    private final long misses;
+    private final long puts;
+    private final long size;
+
+    public CacheRegionStats(String region, long hits, long misses, long puts, long size) {
+        this.region = region;
+        this.hits = hits;
+        this.misses = misses;
+        this.puts = puts;
+        this.size = size;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getPuts() {
+        return puts;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
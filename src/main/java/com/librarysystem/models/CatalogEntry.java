@@ -0,0 +1,8 @@
+package com.librarysystem.models;
+
+public interface CatalogEntry {
+    String getIsbn();
+    String getTitle();
+    String getAuthors();
+    Boolean getAvailable();
+}
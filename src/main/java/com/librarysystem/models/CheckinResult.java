@@ -0,0 +1,25 @@
+package com.librarysystem.models;
+
+public class CheckinResult {
+    private final long loanId;
+    private final boolean success;
+    private final String errorMessage;
+
+    public CheckinResult(long loanId, String errorMessage) {
+        this.loanId = loanId;
+        this.success = errorMessage == null;
+        this.errorMessage = errorMessage;
+    }
+
+    public long getLoanId() {
+        return loanId;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+}
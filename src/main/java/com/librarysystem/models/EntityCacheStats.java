@@ -0,0 +1,58 @@
+package com.librarysystem.models;
+
+import java.util.List;
+
+public class EntityCacheStats {
+    private final long hits;
+    private final long misses;
+    private final long puts;
+    private final long queryCacheHits;
+    private final long queryCacheMisses;
+    private final long statements;
+    private final List<CacheRegionStats> regions;
+
+    public EntityCacheStats(long hits, long misses, long puts, long queryCacheHits, long queryCacheMisses,
+                            long statements, List<CacheRegionStats> regions) {
+        this.hits = hits;
+        this.misses = misses;
+        this.puts = puts;
+        this.queryCacheHits = queryCacheHits;
+        this.queryCacheMisses = queryCacheMisses;
+        this.statements = statements;
+        this.regions = regions;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getPuts() {
+        return puts;
+    }
+
+    public long getQueryCacheHits() {
+        return queryCacheHits;
+    }
+
+    public long getQueryCacheMisses() {
+        return queryCacheMisses;
+    }
+
+    // JDBC statements prepared since startup, to compare against the hits saved
+    public long getStatements() {
+        return statements;
+    }
+
+    public List<CacheRegionStats> getRegions() {
+        return regions;
+    }
+
+    public double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
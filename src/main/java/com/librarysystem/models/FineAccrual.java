@@ -0,0 +1,40 @@
+package com.librarysystem.models;
+
+import java.time.LocalDate;
+
+public class FineAccrual {
+    private final LocalDate since;
+    private final LocalDate accruedOn;
+    private final int created;
+    private final int updated;
+    private final long elapsedMillis;
+
+    public FineAccrual(LocalDate since, LocalDate accruedOn, int created, int updated, long elapsedMillis) {
+        this.since = since;
+        this.accruedOn = accruedOn;
+        this.created = created;
+        this.updated = updated;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    // Loans returned before this day were left alone, their fines were final at the previous run
+    public LocalDate getSince() {
+        return since;
+    }
+
+    public LocalDate getAccruedOn() {
+        return accruedOn;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}
@@ -1,7 +1,31 @@
 package com.librarysystem.models;
 
-public interface FineSummary {
-    String getCardId();
-    Boolean getPaid();
-    Double getAmount();
-}
\ No newline at end of file
+import java.math.BigDecimal;
+
+public class FineSummary {
+    private final String cardId;
+    private final Boolean paid;
+    private final long amountCents;
+
+    public FineSummary(String cardId, Boolean paid, long amountCents) {
+        this.cardId = cardId;
+        this.paid = paid;
+        this.amountCents = amountCents;
+    }
+
+    public String getCardId() {
+        return cardId;
+    }
+
+    public Boolean getPaid() {
+        return paid;
+    }
+
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    public BigDecimal getAmount() {
+        return BigDecimal.valueOf(amountCents, 2);
+    }
+}
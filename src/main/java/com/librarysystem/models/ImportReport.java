@@ -0,0 +1,61 @@
+package com.librarysystem.models;
+
+import java.util.List;
+
+public class ImportReport {
+    private final long jobId;
+    private final String status;
+    private final long checkpoint;
+    private final int rejected;
+    private final String rejectFile;
+    private final ImportSummary total;
+    private final List<ImportSummary> batches;
+    private final String error;
+
+    public ImportReport(long jobId, String status, long checkpoint, int rejected, String rejectFile,
+                        ImportSummary total, List<ImportSummary> batches, String error) {
+        this.jobId = jobId;
+        this.status = status;
+        this.checkpoint = checkpoint;
+        this.rejected = rejected;
+        this.rejectFile = rejectFile;
+        this.total = total;
+        this.batches = batches;
+        this.error = error;
+    }
+
+    public long getJobId() {
+        return jobId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    // Input records handled so far, counting the ones of earlier runs of the job
+    public long getCheckpoint() {
+        return checkpoint;
+    }
+
+    // Records of this run written to the reject file
+    public int getRejected() {
+        return rejected;
+    }
+
+    public String getRejectFile() {
+        return rejectFile;
+    }
+
+    // Books of this run
+    public ImportSummary getTotal() {
+        return total;
+    }
+
+    public List<ImportSummary> getBatches() {
+        return batches;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,53 @@
+package com.librarysystem.models;
+
+public class ImportSummary {
+    private final int books;
+    private final int inserted;
+    private final int skipped;
+    private final int authorsCreated;
+    private final long rows;
+    private final long elapsedMillis;
+
+    public ImportSummary(int books, int inserted, int skipped, int authorsCreated, long rows, long elapsedMillis) {
+        this.books = books;
+        this.inserted = inserted;
+        this.skipped = skipped;
+        this.authorsCreated = authorsCreated;
+        this.rows = rows;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getBooks() {
+        return books;
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    // Books already in the catalog, repeated in the input or without an ISBN
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public int getAuthorsCreated() {
+        return authorsCreated;
+    }
+
+    // Rows written to BOOK, AUTHORS and BOOK_AUTHORS
+    public long getRows() {
+        return rows;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return rows * 1000.0 / Math.max(1, elapsedMillis);
+    }
+
+    public double getBooksPerSecond() {
+        return books * 1000.0 / Math.max(1, elapsedMillis);
+    }
+}
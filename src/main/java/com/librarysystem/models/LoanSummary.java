@@ -0,0 +1,50 @@
+package com.librarysystem.models;
+
+import java.sql.Date;
+
+public interface LoanSummary {
+    Long getLoanId();
+    String getIsbn();
+    String getTitle();
+    String getCardId();
+    String getBorrowerName();
+    Date getDateOut();
+    Date getDueDate();
+    Date getDateIn();
+
+    default String[] displayString() {
+        return new String[]{
+                String.valueOf(getLoanId()),
+                getIsbn(),
+                getTitle(),
+                getCardId(),
+                getBorrowerName(),
+                getDateOut().toString(),
+                getDueDate().toString(),
+                getDateIn() == null ? "" : getDateIn().toString()
+        };
+    }
+
+    default String getLoanInfoString() {
+        return String.format
+                (
+                        "ID: %d\n" +
+                        "ISBN: %s\n" +
+                        "Title: %s\n" +
+                        "Borrower ID: %s\n" +
+                        "Borrower Name: %s\n" +
+                        "Checkout Date: %s\n" +
+                        "Due Date: %s\n" +
+                        "Checkin Date: %s",
+
+                        getLoanId(),
+                        getIsbn(),
+                        getTitle(),
+                        getCardId(),
+                        getBorrowerName(),
+                        getDateOut().toString(),
+                        getDueDate().toString(),
+                        getDateIn() == null ? "" : getDateIn().toString()
+                );
+    }
+}
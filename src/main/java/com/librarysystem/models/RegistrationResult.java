@@ -0,0 +1,32 @@
+package com.librarysystem.models;
+
+public class RegistrationResult {
+    private final int row;
+    private final boolean success;
+    private final String cardId;
+    private final String errorMessage;
+
+    public RegistrationResult(int row, String cardId, String errorMessage) {
+        this.row = row;
+        this.success = errorMessage == null;
+        this.cardId = cardId;
+        this.errorMessage = errorMessage;
+    }
+
+    // Position of the borrower in the request, starting at 0
+    public int getRow() {
+        return row;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public String getCardId() {
+        return cardId;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+}
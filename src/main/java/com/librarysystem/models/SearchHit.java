@@ -0,0 +1,35 @@
+package com.librarysystem.models;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public class SearchHit {
+    private final String isbn;
+    private final double score;
+
+    public SearchHit(String isbn, double score) {
+        this.isbn = isbn;
+        this.score = score;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    // Opaque keyset cursor pointing just after this hit.
+    public String toCursor() {
+        String raw = score + ":" + isbn;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SearchHit fromCursor(String cursor) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int split = raw.indexOf(':');
+        if (split < 0) throw new IllegalArgumentException("Invalid cursor");
+        return new SearchHit(raw.substring(split + 1), Double.parseDouble(raw.substring(0, split)));
+    }
+}
@@ -1,20 +1,49 @@
 package com.librarysystem.resources;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.librarysystem.db.dao.StoredFineRun;
+import com.librarysystem.db.dao.StoredImportJob;
 import com.librarysystem.models.Book;
+import com.librarysystem.models.BookSearchPage;
+import com.librarysystem.models.BookSummary;
+import com.librarysystem.models.BorrowerRegistration;
+import com.librarysystem.models.CheckinResult;
+import com.librarysystem.models.EntityCacheStats;
+import com.librarysystem.models.ImportReport;
+import com.librarysystem.models.ImportSummary;
+import com.librarysystem.models.RegistrationResult;
 import com.librarysystem.models.Response;
+import com.librarysystem.models.SearchCacheStats;
+import com.librarysystem.models.SearchHit;
 import com.librarysystem.services.DatabaseService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @RestController
 public class LibraryResource {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int STREAM_CHUNK_SIZE = 100;
+
     @Autowired
     private DatabaseService databaseService;
+    @Autowired
+    private ObjectMapper objectMapper;
 
     @PostMapping("/addBook")
     public Book addBook(@RequestBody Book book) {
@@ -26,8 +55,107 @@ public class LibraryResource {
         return databaseService.addBooks(books);
     }
 
+    @PostMapping("/books/bulk")
+    public ImportSummary importBooks(@RequestBody List<Book> books) {
+        return databaseService.importBooks(books);
+    }
+
+    // Accepts a JSON array of books or one book per line; the body is never held in memory as a whole.
+    // After a failure, post the same input again with the job ID to continue from the checkpoint.
+    @PostMapping("/books/import")
+    public ResponseEntity<ImportReport> importBookStream(InputStream body,
+                                                        @RequestParam(value = "jobId", required = false) Long jobId) {
+        ImportReport report;
+        try {
+            report = databaseService.importBooks(body, jobId);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        if (StoredImportJob.FAILED.equals(report.getStatus())) return ResponseEntity.badRequest().body(report);
+        return ResponseEntity.ok(report);
+    }
+
+    @GetMapping("/books/import/{jobId}")
+    public ResponseEntity<StoredImportJob> getImportJob(@PathVariable("jobId") long jobId) {
+        return ResponseEntity.of(databaseService.getImportJob(jobId));
+    }
+
+    @PostMapping("/borrowers/bulk")
+    public List<RegistrationResult> registerBorrowers(@RequestBody List<BorrowerRegistration> borrowers) {
+        return databaseService.registerBorrowers(borrowers);
+    }
+
+    @PostMapping("/loans/checkin")
+    public List<CheckinResult> checkin(@RequestBody List<Long> loanIds) {
+        return databaseService.checkin(loanIds);
+    }
+
     @PostMapping("/updateFines")
     public Response updateFines() {
         return databaseService.updateFines();
     }
+
+    @GetMapping("/fines/runs/latest")
+    public ResponseEntity<StoredFineRun> getLatestFineRun() {
+        return ResponseEntity.of(databaseService.getLatestFineRun());
+    }
+
+    @GetMapping("/fines/runs/{runId}")
+    public ResponseEntity<StoredFineRun> getFineRun(@PathVariable("runId") long runId) {
+        return ResponseEntity.of(databaseService.getFineRun(runId));
+    }
+
+    @GetMapping("/books/suggest")
+    public List<String> suggest(@RequestParam("prefix") String prefix) {
+        return databaseService.getSuggestions(prefix);
+    }
+
+    @GetMapping("/books/search/cache")
+    public SearchCacheStats getSearchCacheStats() {
+        return databaseService.getSearchCacheStats();
+    }
+
+    @GetMapping("/cache/entities")
+    public EntityCacheStats getEntityCacheStats() {
+        return databaseService.getEntityCacheStats();
+    }
+
+    // Streams one page of results as newline delimited JSON. The next page is fetched by passing
+    // the X-Next-Cursor header back as the cursor.
+    @GetMapping("/books/search")
+    public ResponseEntity<StreamingResponseBody> searchBooks(@RequestParam("q") String query,
+                                                             @RequestParam(value = "cursor", required = false) String cursor,
+                                                             @RequestParam(value = "limit", defaultValue = "50") int limit,
+                                                             @RequestParam(value = "fuzzy", defaultValue = "false") boolean fuzzy) {
+        BookSearchPage page;
+        try {
+            page = databaseService.searchBooks(query, cursor, limit, fuzzy);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<String> isbns = page.getHits().stream().map(SearchHit::getIsbn).collect(Collectors.toList());
+        StreamingResponseBody body = out -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+            generator.setRootValueSeparator(null);
+            for (int from = 0; from < isbns.size(); from += STREAM_CHUNK_SIZE) {
+                List<String> chunk = isbns.subList(from, Math.min(from + STREAM_CHUNK_SIZE, isbns.size()));
+                for (BookSummary book : databaseService.getBookSummaries(chunk)) {
+                    generator.writeStartObject();
+                    generator.writeStringField("isbn", book.getIsbn());
+                    generator.writeStringField("title", book.getTitle());
+                    generator.writeStringField("authors", book.getAuthors());
+                    generator.writeBooleanField("available", Boolean.TRUE.equals(book.getAvailable()));
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                }
+                generator.flush();
+            }
+            generator.close();
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(NDJSON);
+        if (page.getNextCursor() != null) response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        return response.body(body);
+    }
 }
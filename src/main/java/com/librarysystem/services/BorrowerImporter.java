@@ -0,0 +1,68 @@
+package com.librarysystem.services;
+
+import com.librarysystem.db.dao.StoredBorrower;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Batch insert of borrowers that already have a card ID. Card IDs and SSNs already in BORROWER, or
+// repeated in the chunk, are skipped.
+@Component
+public class BorrowerImporter {
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private CardIdAllocator cardIdAllocator;
+
+    // Inserts one chunk in its own transaction and returns the number of borrowers written.
+    public int importChunk(List<StoredBorrower> borrowers) {
+        Integer inserted = transactionTemplate.execute(status -> insert(borrowers));
+        // keep generated card IDs clear of the ones just written
+        borrowers.stream().mapToLong(b -> CardIdAllocator.parse(b.getCardId())).max()
+                .ifPresent(max -> {
+                    if (max > 0) cardIdAllocator.skipPast(max);
+                });
+        return inserted == null ? 0 : inserted;
+    }
+
+    private int insert(List<StoredBorrower> chunk) {
+        Map<String, StoredBorrower> borrowers = new LinkedHashMap<>();
+        Set<String> ssns = new HashSet<>();
+        chunk.stream()
+                .filter(b -> b.getCardId() != null && b.getSsn() != null)
+                .filter(b -> !borrowers.containsKey(b.getCardId()) && ssns.add(b.getSsn()))
+                .forEach(b -> borrowers.put(b.getCardId(), b));
+        if (borrowers.isEmpty()) return 0;
+        MapSqlParameterSource keys = new MapSqlParameterSource()
+                .addValue("cardIds", borrowers.keySet())
+                .addValue("ssns", ssns);
+        jdbcTemplate.query("SELECT Card_id, Ssn FROM BORROWER WHERE Card_id IN (:cardIds) OR Ssn IN (:ssns)", keys,
+                rs -> { ssns.remove(rs.getString(2)); borrowers.remove(rs.getString(1)); });
+        borrowers.values().removeIf(b -> !ssns.contains(b.getSsn()));
+        if (borrowers.isEmpty()) return 0;
+        jdbcTemplate.batchUpdate("INSERT INTO BORROWER (Card_id, Ssn, Bname, Email, Address, City, State, Phone) " +
+                "VALUES (:cardId, :ssn, :name, :email, :address, :city, :state, :phone)", borrowers.values().stream()
+                .map(b -> new MapSqlParameterSource()
+                        .addValue("cardId", b.getCardId())
+                        .addValue("ssn", b.getSsn())
+                        .addValue("name", b.getName())
+                        .addValue("email", b.getEmail())
+                        .addValue("address", b.getAddress())
+                        .addValue("city", b.getCity())
+                        .addValue("state", b.getState())
+                        .addValue("phone", b.getPhone()))
+                .toArray(MapSqlParameterSource[]::new));
+        return borrowers.size();
+    }
+}
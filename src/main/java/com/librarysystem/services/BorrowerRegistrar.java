@@ -0,0 +1,136 @@
+package com.librarysystem.services;
+
+import com.librarysystem.models.BorrowerRegistration;
+import com.librarysystem.models.RegistrationResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Registers many borrowers in one call. Rows are validated in parallel; their SSNs are screened with
+// the SSN filter and only the possible duplicates are looked up, with one IN query per batch. The
+// remaining rows get card IDs from the allocator and are written with batch inserts. Every row gets
+// its own outcome, so one conflict does not stop the others.
+@Component
+public class BorrowerRegistrar {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_LENGTH = 255;
+    private static final String INSERT = "INSERT INTO BORROWER (Card_id, Ssn, Bname, Email, Address, City, State, Phone) " +
+            "VALUES (:cardId, :ssn, :name, :email, :address, :city, :state, :phone)";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private CardIdAllocator cardIdAllocator;
+    @Autowired
+    private SsnFilter ssnFilter;
+
+    public List<RegistrationResult> register(List<BorrowerRegistration> borrowers) {
+        int size = borrowers.size();
+        String[] errors = IntStream.range(0, size).parallel()
+                .mapToObj(i -> validate(borrowers.get(i)))
+                .toArray(String[]::new);
+        String[] cardIds = new String[size];
+
+        // a repeated SSN keeps its first row
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            if (errors[i] == null && !seen.add(borrowers.get(i).getSsn())) errors[i] = "SSN Exists";
+        }
+        for (int from = 0; from < size; from += BATCH_SIZE) {
+            int to = Math.min(from + BATCH_SIZE, size);
+            Set<String> probable = IntStream.range(from, to)
+                    .filter(i -> errors[i] == null && ssnFilter.mightContain(borrowers.get(i).getSsn()))
+                    .mapToObj(i -> borrowers.get(i).getSsn())
+                    .collect(Collectors.toSet());
+            Set<String> existing = probable.isEmpty() ? Set.of() : new HashSet<>(jdbcTemplate.queryForList(
+                    "SELECT Ssn FROM BORROWER WHERE Ssn IN (:ssns)", new MapSqlParameterSource("ssns", probable), String.class));
+            List<Integer> accepted = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                if (errors[i] != null) continue;
+                if (existing.contains(borrowers.get(i).getSsn())) {
+                    errors[i] = "SSN Exists";
+                    continue;
+                }
+                cardIds[i] = cardIdAllocator.next();
+                accepted.add(i);
+            }
+            insert(borrowers, accepted, cardIds, errors);
+        }
+        return IntStream.range(0, size)
+                .mapToObj(i -> new RegistrationResult(i, errors[i] == null ? cardIds[i] : null, errors[i]))
+                .collect(Collectors.toList());
+    }
+
+    // One batch for the accepted rows; if it hits a unique key, e.g. an SSN registered meanwhile,
+    // the rows are written one by one to find the ones in conflict and what they conflict with.
+    private void insert(List<BorrowerRegistration> borrowers, List<Integer> accepted, String[] cardIds, String[] errors) {
+        if (accepted.isEmpty()) return;
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT, accepted.stream()
+                    .map(i -> parameters(borrowers.get(i), cardIds[i]))
+                    .toArray(MapSqlParameterSource[]::new)));
+        } catch (DataIntegrityViolationException e) {
+            accepted.forEach(i -> {
+                try {
+                    transactionTemplate.executeWithoutResult(status ->
+                            jdbcTemplate.update(INSERT, parameters(borrowers.get(i), cardIds[i])));
+                } catch (DataIntegrityViolationException conflict) {
+                    // the card ID key can clash too; only a stored SSN means the borrower exists
+                    errors[i] = ssnExists(borrowers.get(i).getSsn()) ? "SSN Exists" : "Error Occurred";
+                }
+            });
+        }
+        accepted.stream().filter(i -> errors[i] == null).forEach(i -> ssnFilter.add(borrowers.get(i).getSsn()));
+    }
+
+    private boolean ssnExists(String ssn) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BORROWER WHERE Ssn = :ssn",
+                new MapSqlParameterSource("ssn", ssn), Integer.class);
+        return count != null && count > 0;
+    }
+
+    // Same rules as the registration form.
+    static String validate(BorrowerRegistration b) {
+        if (isBlank(b.getSsn()) || isBlank(b.getFirstName()) || isBlank(b.getLastName()) || isBlank(b.getEmail())
+                || isBlank(b.getAddress()) || isBlank(b.getCity()) || isBlank(b.getState()) || isBlank(b.getPhone())) {
+            return "All fields are mandatory";
+        }
+        if (!b.getSsn().matches("^\\d{3}-\\d{2}-\\d{4}$")) return "Invalid SSN";
+        if (b.getState().length() != 2) return "State can only be 2 characters.";
+        if (b.getFirstName().length() + b.getLastName().length() + 1 > MAX_LENGTH || b.getEmail().length() > MAX_LENGTH
+                || b.getAddress().length() > MAX_LENGTH || b.getCity().length() > MAX_LENGTH
+                || b.getPhone().length() > MAX_LENGTH) {
+            return "Fields can be at most 255 characters.";
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static MapSqlParameterSource parameters(BorrowerRegistration b, String cardId) {
+        return new MapSqlParameterSource()
+                .addValue("cardId", cardId)
+                .addValue("ssn", b.getSsn())
+                .addValue("name", b.getFirstName() + " " + b.getLastName())
+                .addValue("email", b.getEmail())
+                .addValue("address", b.getAddress())
+                .addValue("city", b.getCity())
+                .addValue("state", b.getState())
+                .addValue("phone", b.getPhone());
+    }
+}
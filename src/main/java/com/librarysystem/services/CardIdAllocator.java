@@ -0,0 +1,111 @@
+package com.librarysystem.services;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Hands out borrower card IDs (ID000001, ID000002, ...) from blocks reserved in CARD_ID_SEQUENCE.
+// Reserving a block moves the sequence row forward in its own transaction, so every app instance
+// gets distinct blocks; within a block IDs come from an AtomicLong without locking. IDs left in a
+// block when the application stops are never used.
+@Component
+public class CardIdAllocator {
+
+    private static final String SEQUENCE = "BORROWER";
+    private static final String PREFIX = "ID";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Value("${librarysystem.borrower.card-id-block:100}")
+    private int blockSize;
+
+    private TransactionTemplate reservation;
+    private final AtomicReference<Block> block = new AtomicReference<>(new Block(0, 0));
+
+    @PostConstruct
+    void init() {
+        reservation = new TransactionTemplate(transactionManager);
+        reservation.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public String next() {
+        while (true) {
+            Block current = block.get();
+            long id = current.next.getAndIncrement();
+            if (id < current.end) return format(id);
+            synchronized (this) {
+                if (block.get() == current) block.set(reserve(blockSize));
+            }
+        }
+    }
+
+    // Moves the sequence past IDs that were inserted without it, e.g. by the CSV loader, and drops
+    // the current block if it overlaps them.
+    public synchronized void skipPast(long id) {
+        reservation.executeWithoutResult(status -> {
+            initialize();
+            jdbcTemplate.update("UPDATE CARD_ID_SEQUENCE SET Next_value = GREATEST(Next_value, ?) WHERE Name = ?",
+                    id + 1, SEQUENCE);
+        });
+        if (block.get().next.get() <= id) block.set(new Block(0, 0));
+    }
+
+    public static String format(long id) {
+        return String.format("%s%06d", PREFIX, id);
+    }
+
+    // The number in a card ID, or -1 if it is not in the ID000001 format.
+    public static long parse(String cardId) {
+        if (cardId == null || !cardId.startsWith(PREFIX) || cardId.length() == PREFIX.length()) return -1;
+        try {
+            return Long.parseLong(cardId.substring(PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private Block reserve(int count) {
+        Long end = reservation.execute(status -> {
+            initialize();
+            jdbcTemplate.update("UPDATE CARD_ID_SEQUENCE SET Next_value = Next_value + ? WHERE Name = ?", count, SEQUENCE);
+            return jdbcTemplate.queryForObject("SELECT Next_value FROM CARD_ID_SEQUENCE WHERE Name = ?", Long.class, SEQUENCE);
+        });
+        return new Block(end - count, end);
+    }
+
+    // Creates the sequence row on first use, starting after the highest card ID already in BORROWER.
+    private void initialize() {
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM CARD_ID_SEQUENCE WHERE Name = ?", Integer.class, SEQUENCE);
+        if (rows != null && rows > 0) return;
+        List<String> highest = jdbcTemplate.queryForList("SELECT Card_id FROM BORROWER WHERE Card_id LIKE 'ID%' " +
+                "ORDER BY LENGTH(Card_id) DESC, Card_id DESC LIMIT 1", String.class);
+        long start = highest.isEmpty() ? 1 : Math.max(parse(highest.get(0)), 0) + 1;
+        try {
+            jdbcTemplate.update("INSERT INTO CARD_ID_SEQUENCE (Name, Next_value) VALUES (?, ?)", SEQUENCE, start);
+        } catch (DuplicateKeyException e) {
+            // another instance created it first
+        }
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long next, long end) {
+            this.next = new AtomicLong(next);
+            this.end = end;
+        }
+    }
+}
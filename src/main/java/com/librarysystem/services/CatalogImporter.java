@@ -0,0 +1,213 @@
+package com.librarysystem.services;
+
+import com.librarysystem.models.Author;
+import com.librarysystem.models.Book;
+import com.librarysystem.models.ImportSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// Bulk insert of books with plain JDBC. Each chunk is one transaction: the ISBNs and author names of
+// the chunk are looked up with one IN query each, then BOOK, AUTHORS and BOOK_AUTHORS are written
+// with batch inserts. Books already in the catalog are left untouched, like addBook does.
+@Component
+public class CatalogImporter {
+
+    private static final int MAX_LENGTH = 255;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityCache entityCache;
+    @Value("${librarysystem.import.chunk-size:1000}")
+    private int chunkSize;
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    // Imports the books chunk by chunk; the books of every committed chunk are passed to the listener.
+    public ImportSummary importBooks(List<Book> books, Consumer<List<Book>> imported) {
+        long start = System.currentTimeMillis();
+        int size = Math.max(1, chunkSize);
+        int inserted = 0;
+        int authorsCreated = 0;
+        long rows = 0;
+        for (int from = 0; from < books.size(); from += size) {
+            ImportSummary chunk = importChunk(books.subList(from, Math.min(from + size, books.size())), imported);
+            inserted += chunk.getInserted();
+            authorsCreated += chunk.getAuthorsCreated();
+            rows += chunk.getRows();
+        }
+        return new ImportSummary(books.size(), inserted, books.size() - inserted, authorsCreated, rows,
+                System.currentTimeMillis() - start);
+    }
+
+    // Imports one chunk in its own transaction.
+    public ImportSummary importChunk(List<Book> books, Consumer<List<Book>> imported) {
+        return importChunk(books, imported, summary -> { });
+    }
+
+    // Same, calling beforeCommit inside the transaction so that bookkeeping commits with the chunk.
+    public ImportSummary importChunk(List<Book> books, Consumer<List<Book>> imported,
+                                     Consumer<ImportSummary> beforeCommit) {
+        long start = System.currentTimeMillis();
+        ChunkResult result = transactionTemplate.execute(status -> {
+            ChunkResult inserted = insert(books);
+            inserted.summary = new ImportSummary(books.size(), inserted.books.size(),
+                    books.size() - inserted.books.size(), inserted.authorsCreated, inserted.rows,
+                    System.currentTimeMillis() - start);
+            beforeCommit.accept(inserted.summary);
+            return inserted;
+        });
+        entityCache.authorsChanged(result.authorIds);
+        if (!result.books.isEmpty()) imported.accept(result.books);
+        return result.summary;
+    }
+
+    // Why the book cannot be stored, or null when it can.
+    public static String validate(Book book) {
+        if (book.getIsbn() == null || book.getIsbn().isBlank()) return "missing isbn";
+        if (book.getIsbn().length() > MAX_LENGTH) return "isbn longer than " + MAX_LENGTH;
+        if (book.getTitle() != null && book.getTitle().length() > MAX_LENGTH) return "title longer than " + MAX_LENGTH;
+        if (book.getCoverUrl() != null && book.getCoverUrl().length() > MAX_LENGTH) return "cover url longer than " + MAX_LENGTH;
+        if (book.getPublisher() != null && book.getPublisher().length() > MAX_LENGTH) return "publisher longer than " + MAX_LENGTH;
+        if (book.getPages() < 0) return "negative page count";
+        if (book.getAuthors() != null && book.getAuthors().stream()
+                .anyMatch(a -> a != null && a.getName() != null && a.getName().trim().length() > MAX_LENGTH)) {
+            return "author name longer than " + MAX_LENGTH;
+        }
+        return null;
+    }
+
+    private ChunkResult insert(List<Book> chunk) {
+        Map<String, Book> books = new LinkedHashMap<>();
+        chunk.stream().filter(b -> b.getIsbn() != null && !b.getIsbn().isBlank())
+                .forEach(b -> books.putIfAbsent(b.getIsbn(), b));
+        ChunkResult result = new ChunkResult();
+        if (books.isEmpty()) return result;
+        existingIsbns(books.keySet()).forEach(books::remove);
+        if (books.isEmpty()) return result;
+
+        // authors are matched the way the unique key on AUTHORS.Name compares them: utf8mb4_0900_ai_ci
+        // ignores case and accents, so spellings that differ only in those are one author
+        Collator collator = nameCollator();
+        Map<CollationKey, String> names = new LinkedHashMap<>();
+        books.values().forEach(b -> authorNames(b, collator)
+                .forEach(n -> names.putIfAbsent(collator.getCollationKey(n), n)));
+        Map<CollationKey, Long> authorIds = authorIds(names.values(), collator);
+        List<String> missing = names.entrySet().stream()
+                .filter(e -> !authorIds.containsKey(e.getKey())).map(Map.Entry::getValue).toList();
+        if (!missing.isEmpty()) {
+            // IGNORE: a name that the collator tells apart from a stored one but the unique key does not
+            // is skipped here and resolved to the stored author below
+            jdbcTemplate.batchUpdate("INSERT IGNORE INTO AUTHORS (Name) VALUES (:name)", missing.stream()
+                    .map(n -> new MapSqlParameterSource("name", n)).toArray(MapSqlParameterSource[]::new));
+            Set<Long> existing = new HashSet<>(authorIds.values());
+            Map<CollationKey, Long> created = authorIds(missing, collator);
+            missing.stream().map(collator::getCollationKey).filter(k -> !created.containsKey(k))
+                    .forEach(k -> created.put(k, authorId(names.get(k))));
+            authorIds.putAll(created);
+            result.authorsCreated = (int) created.values().stream().distinct()
+                    .filter(id -> !existing.contains(id)).count();
+        }
+
+        jdbcTemplate.batchUpdate("INSERT INTO BOOK (Isbn, Title, Cover_url, Publisher, Pages, Available) " +
+                "VALUES (:isbn, :title, :coverUrl, :publisher, :pages, :available)", books.values().stream()
+                .map(b -> new MapSqlParameterSource()
+                        .addValue("isbn", b.getIsbn())
+                        .addValue("title", b.getTitle())
+                        .addValue("coverUrl", b.getCoverUrl())
+                        .addValue("publisher", b.getPublisher())
+                        .addValue("pages", b.getPages())
+                        .addValue("available", b.isAvailable()))
+                .toArray(MapSqlParameterSource[]::new));
+        List<MapSqlParameterSource> links = new ArrayList<>();
+        List<Book> saved = new ArrayList<>(books.size());
+        books.values().forEach(b -> {
+            List<Author> authors = new ArrayList<>();
+            authorNames(b, collator).forEach(n -> {
+                Long id = authorIds.get(collator.getCollationKey(n));
+                links.add(new MapSqlParameterSource().addValue("isbn", b.getIsbn()).addValue("authorId", id));
+                result.authorIds.add(id);
+                authors.add(new Author(id, n));
+            });
+            saved.add(new Book(b.getIsbn(), b.getTitle(), b.getCoverUrl(), b.getPublisher(), b.getPages(),
+                    authors, b.isAvailable(), new ArrayList<>()));
+        });
+        if (!links.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO BOOK_AUTHORS (Isbn, Author_id) VALUES (:isbn, :authorId)",
+                    links.toArray(MapSqlParameterSource[]::new));
+        }
+        result.books = saved;
+        result.rows = books.size() + result.authorsCreated + links.size();
+        return result;
+    }
+
+    private List<String> existingIsbns(Collection<String> isbns) {
+        return jdbcTemplate.queryForList("SELECT Isbn FROM BOOK WHERE Isbn IN (:isbns)",
+                new MapSqlParameterSource("isbns", isbns), String.class);
+    }
+
+    // The IDs of the stored authors whose names match, keyed by the collation key of the stored name.
+    private Map<CollationKey, Long> authorIds(Collection<String> names, Collator collator) {
+        Map<CollationKey, Long> ids = new HashMap<>();
+        if (names.isEmpty()) return ids;
+        jdbcTemplate.query("SELECT Author_id, Name FROM AUTHORS WHERE Name IN (:names)",
+                new MapSqlParameterSource("names", names),
+                rs -> { ids.put(collator.getCollationKey(rs.getString(2)), rs.getLong(1)); });
+        return ids;
+    }
+
+    // For the rare name the collator and the database disagree on: the database decides.
+    private Long authorId(String name) {
+        return jdbcTemplate.queryForObject("SELECT Author_id FROM AUTHORS WHERE Name = :name",
+                new MapSqlParameterSource("name", name), Long.class);
+    }
+
+    // The distinct, trimmed author names of a book.
+    private static Set<String> authorNames(Book book, Collator collator) {
+        Map<CollationKey, String> names = new LinkedHashMap<>();
+        if (book.getAuthors() == null) return new LinkedHashSet<>();
+        book.getAuthors().stream()
+                .filter(a -> a != null && a.getName() != null && !a.getName().isBlank())
+                .map(a -> a.getName().trim())
+                .forEach(n -> names.putIfAbsent(collator.getCollationKey(n), n));
+        return new LinkedHashSet<>(names.values());
+    }
+
+    // Equal names at primary strength differ at most in case and accents, like utf8mb4_0900_ai_ci.
+    private static Collator nameCollator() {
+        Collator collator = Collator.getInstance(Locale.ROOT);
+        collator.setStrength(Collator.PRIMARY);
+        collator.setDecomposition(Collator.CANONICAL_DECOMPOSITION);
+        return collator;
+    }
+
+    private static final class ChunkResult {
+        private List<Book> books = new ArrayList<>();
+        private final Set<Long> authorIds = new LinkedHashSet<>();
+        private int authorsCreated;
+        private long rows;
+        private ImportSummary summary;
+    }
+}
@@ -0,0 +1,438 @@
+package com.librarysystem.services;
+
+import com.librarysystem.models.CatalogEntry;
+import com.librarysystem.models.SearchHit;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+// In-memory trigram index over title, author names and ISBN of every book.
+// Each book gets a dense doc id; the postings of a trigram are the sorted doc ids that contain it.
+@Component
+public class CatalogIndex {
+
+    private static final int GRAM = 3;
+    private static final double TITLE_WEIGHT = 3.0;
+    private static final double AUTHOR_WEIGHT = 2.0;
+    private static final double ISBN_WEIGHT = 1.0;
+    private static final double WORD_START_BOOST = 1.5;
+    private static final int FUZZY_MIN_LENGTH = 3;
+    // vocabulary words checked with Levenshtein per misspelled term, those sharing most trigrams first
+    private static final int FUZZY_MAX_CANDIDATES = 64;
+    static final Comparator<SearchHit> RANKING = Comparator.comparingDouble(SearchHit::getScore).reversed()
+            .thenComparing(SearchHit::getIsbn);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    private final Map<String, Integer> docIds = new HashMap<>();
+    private final List<String> isbns = new ArrayList<>();
+    private final List<String> isbnTerms = new ArrayList<>();
+    private final List<String> titles = new ArrayList<>();
+    private final List<String> authors = new ArrayList<>();
+    private final BitSet deleted = new BitSet();
+    // Distinct title and author words, with their padded trigrams and the docs that contain them,
+    // used to find words within a small edit distance of a misspelled term.
+    private final Map<String, Integer> wordIds = new HashMap<>();
+    private final List<String> words = new ArrayList<>();
+    private int[] wordLengths = new int[16];
+    private final Map<Long, PostingList> wordGrams = new HashMap<>();
+    // per searching thread, the shared trigram count of every word; only touched entries are reset
+    private final ThreadLocal<int[]> sharedGrams = ThreadLocal.withInitial(() -> new int[0]);
+    private final Map<String, PostingList> titleWords = new HashMap<>();
+    private final Map<String, PostingList> authorWords = new HashMap<>();
+    private volatile boolean ready = false;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void rebuild(List<CatalogEntry> entries) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docIds.clear();
+            isbns.clear();
+            isbnTerms.clear();
+            titles.clear();
+            authors.clear();
+            deleted.clear();
+            wordIds.clear();
+            words.clear();
+            wordLengths = new int[16];
+            wordGrams.clear();
+            titleWords.clear();
+            authorWords.clear();
+            entries.forEach(e -> index(e.getIsbn(), e.getTitle(), e.getAuthors()));
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void add(String isbn, String title, String authorNames) {
+        lock.writeLock().lock();
+        try {
+            index(isbn, title, authorNames);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<SearchHit> search(String query, int limit) {
+        return search(query, null, limit);
+    }
+
+    // Books that contain every term of the query in their title, author names or ISBN,
+    // best score first and ranked after the given hit. Only the top limit hits are kept while scanning.
+    public List<SearchHit> search(String query, SearchHit after, int limit) {
+        List<String> terms = terms(query);
+        if (terms.isEmpty() || limit <= 0) return Collections.emptyList();
+        lock.readLock().lock();
+        try {
+            PriorityQueue<SearchHit> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+            for (int doc : candidates(terms)) {
+                if (deleted.get(doc)) continue;
+                double score = score(doc, terms);
+                if (score == 0) continue;
+                if (after != null && !isRankedAfter(score, isbns.get(doc), after)) continue;
+                if (top.size() == limit && score < top.peek().getScore()) continue;
+                top.add(new SearchHit(isbns.get(doc), score));
+                if (top.size() > limit) top.poll();
+            }
+            List<SearchHit> result = new ArrayList<>(top);
+            result.sort(RANKING);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Like search, but a term that is not a known word also matches title and author words within one
+    // edit (two for terms longer than five characters). Close words score less than exact words.
+    public List<SearchHit> fuzzySearch(String query, SearchHit after, int limit) {
+        List<String> terms = new ArrayList<>(terms(query));
+        if (terms.isEmpty() || limit <= 0) return Collections.emptyList();
+        lock.readLock().lock();
+        try {
+            // score the most selective terms first, later terms only rescore the docs that are left
+            terms.sort(Comparator.comparing((String t) -> wordIds.containsKey(t))
+                    .thenComparing(String::length, Comparator.reverseOrder()));
+            Map<Integer, Double> scores = null;
+            for (String term : terms) {
+                Map<Integer, Double> termScores = fuzzyTermScores(term, scores);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    Map<Integer, Double> combined = new HashMap<>();
+                    for (Map.Entry<Integer, Double> e : termScores.entrySet()) {
+                        Double previous = scores.get(e.getKey());
+                        if (previous != null) combined.put(e.getKey(), previous + e.getValue());
+                    }
+                    scores = combined;
+                }
+                if (scores.isEmpty()) return Collections.emptyList();
+            }
+            PriorityQueue<SearchHit> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+            for (Map.Entry<Integer, Double> e : scores.entrySet()) {
+                int doc = e.getKey();
+                double score = e.getValue();
+                if (deleted.get(doc)) continue;
+                if (after != null && !isRankedAfter(score, isbns.get(doc), after)) continue;
+                if (top.size() == limit && score < top.peek().getScore()) continue;
+                top.add(new SearchHit(isbns.get(doc), score));
+                if (top.size() > limit) top.poll();
+            }
+            List<SearchHit> result = new ArrayList<>(top);
+            result.sort(RANKING);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Best score of the term per doc. When docs is given only those docs are scored.
+    private Map<Integer, Double> fuzzyTermScores(String term, Map<Integer, Double> docs) {
+        Map<Integer, Double> scores = new HashMap<>();
+        List<String> single = List.of(term);
+        if (docs != null && term.length() < GRAM) {
+            docs.keySet().forEach(doc -> scoreExact(scores, doc, single));
+        } else {
+            // the trigram candidates of the term are usually far fewer than the docs left by earlier terms
+            for (int doc : candidates(single)) {
+                if (docs == null || docs.containsKey(doc)) scoreExact(scores, doc, single);
+            }
+        }
+        if (term.length() < FUZZY_MIN_LENGTH || wordIds.containsKey(term)) return scores;
+        int maxEdits = term.length() <= 5 ? 1 : 2;
+        for (String word : similarWords(term, maxEdits)) {
+            double closeness = WORD_START_BOOST * (1 - boundedDistance(term, word, maxEdits) / (term.length() + 1.0));
+            scoreWord(scores, docs, titleWords.get(word), TITLE_WEIGHT * closeness);
+            scoreWord(scores, docs, authorWords.get(word), AUTHOR_WEIGHT * closeness);
+        }
+        return scores;
+    }
+
+    private void scoreExact(Map<Integer, Double> scores, int doc, List<String> term) {
+        double score = score(doc, term);
+        if (score > 0) scores.merge(doc, score, Math::max);
+    }
+
+    private static void scoreWord(Map<Integer, Double> scores, Map<Integer, Double> docs, PostingList list,
+                                  double score) {
+        if (list == null) return;
+        for (int i = 0; i < list.size; i++) {
+            int doc = list.ids[i];
+            if (docs == null || docs.containsKey(doc)) scores.merge(doc, score, Math::max);
+        }
+    }
+
+    // Vocabulary words within maxEdits of the term. Candidates must have a length within maxEdits of the
+    // term and share enough padded trigrams with it: a padded word has as many trigrams as letters and
+    // every edit destroys at most three of them. A word sharing at least `required` of the term's grams
+    // contains one of its grams - required + 1 rarest grams, so the most common grams are not scanned
+    // and the threshold is lowered by as many. Only the FUZZY_MAX_CANDIDATES candidates sharing the
+    // most trigrams are verified with a bounded Levenshtein.
+    private List<String> similarWords(String term, int maxEdits) {
+        String padded = " " + term + " ";
+        int grams = padded.length() - GRAM + 1;
+        List<PostingList> lists = new ArrayList<>(grams);
+        for (int i = 0; i < grams; i++) {
+            PostingList list = wordGrams.get(gram(padded, i));
+            lists.add(list == null ? new PostingList() : list);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+        int skipped = Math.max(1, grams - GRAM * maxEdits) - 1;
+        int[] shared = sharedGrams.get();
+        if (shared.length < words.size()) {
+            shared = new int[wordLengths.length];
+            sharedGrams.set(shared);
+        }
+        List<Integer> touched = new ArrayList<>();
+        for (PostingList list : lists.subList(0, grams - skipped)) {
+            for (int j = 0; j < list.size; j++) {
+                int id = list.ids[j];
+                if (Math.abs(wordLengths[id] - term.length()) > maxEdits) continue;
+                if (shared[id]++ == 0) touched.add(id);
+            }
+        }
+        // candidates bucketed by shared trigrams, most first
+        List<List<Integer>> byShared = new ArrayList<>(Collections.nCopies(grams + 1, null));
+        for (int id : touched) {
+            int count = shared[id];
+            shared[id] = 0;
+            if (count < Math.max(1, Math.max(grams, wordLengths[id]) - GRAM * maxEdits - skipped)) continue;
+            if (byShared.get(count) == null) byShared.set(count, new ArrayList<>());
+            byShared.get(count).add(id);
+        }
+        List<String> similar = new ArrayList<>();
+        int checked = 0;
+        for (int count = grams; count > 0 && checked < FUZZY_MAX_CANDIDATES; count--) {
+            if (byShared.get(count) == null) continue;
+            for (int id : byShared.get(count)) {
+                if (checked++ == FUZZY_MAX_CANDIDATES) break;
+                String word = words.get(id);
+                if (!word.equals(term) && boundedDistance(term, word, maxEdits) <= maxEdits) similar.add(word);
+            }
+        }
+        return similar;
+    }
+
+    // Levenshtein distance, or max + 1 as soon as it is known to exceed max.
+    static int boundedDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) return max + 1;
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) previous[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) return max + 1;
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static List<String> words(String field) {
+        return Arrays.stream(field.split("[^\\p{L}\\p{Nd}]+"))
+                .filter(w -> !w.isEmpty()).distinct().collect(Collectors.toList());
+    }
+
+    private static boolean isRankedAfter(double score, String isbn, SearchHit after) {
+        if (score != after.getScore()) return score < after.getScore();
+        return isbn.compareTo(after.getIsbn()) > 0;
+    }
+
+    private void index(String isbn, String title, String authorNames) {
+        String normalizedIsbn = normalize(isbn);
+        String normalizedTitle = normalize(title);
+        String normalizedAuthors = normalize(authorNames);
+        Integer existing = docIds.get(isbn);
+        if (existing != null) {
+            if (normalizedTitle.equals(titles.get(existing)) && normalizedAuthors.equals(authors.get(existing))) {
+                return;
+            }
+            deleted.set(existing);
+        }
+        int doc = isbns.size();
+        docIds.put(isbn, doc);
+        isbns.add(isbn);
+        isbnTerms.add(normalizedIsbn);
+        titles.add(normalizedTitle);
+        authors.add(normalizedAuthors);
+        addGrams(doc, normalizedIsbn);
+        addGrams(doc, normalizedTitle);
+        addGrams(doc, normalizedAuthors);
+        addWords(doc, normalizedTitle, titleWords);
+        addWords(doc, normalizedAuthors, authorWords);
+    }
+
+    private void addWords(int doc, String field, Map<String, PostingList> fieldWords) {
+        for (String word : words(field)) {
+            fieldWords.computeIfAbsent(word, k -> new PostingList()).add(doc);
+            if (wordIds.containsKey(word)) continue;
+            int id = words.size();
+            wordIds.put(word, id);
+            words.add(word);
+            if (id == wordLengths.length) wordLengths = Arrays.copyOf(wordLengths, id * 2);
+            wordLengths[id] = word.length();
+            String padded = " " + word + " ";
+            for (int i = 0; i + GRAM <= padded.length(); i++) {
+                wordGrams.computeIfAbsent(gram(padded, i), k -> new PostingList()).add(id);
+            }
+        }
+    }
+
+    private void addGrams(int doc, String field) {
+        for (int i = 0; i + GRAM <= field.length(); i++) {
+            postings.computeIfAbsent(gram(field, i), k -> new PostingList()).add(doc);
+        }
+    }
+
+    // Doc ids that contain every trigram of every term. Terms shorter than a trigram do not narrow
+    // the candidates and are only checked when scoring.
+    private int[] candidates(List<String> terms) {
+        Set<Long> grams = new LinkedHashSet<>();
+        for (String term : terms) {
+            for (int i = 0; i + GRAM <= term.length(); i++) grams.add(gram(term, i));
+        }
+        if (grams.isEmpty()) return allDocs();
+        List<PostingList> lists = new ArrayList<>(grams.size());
+        for (Long g : grams) {
+            PostingList list = postings.get(g);
+            if (list == null) return new int[0];
+            lists.add(list);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+        int[] result = Arrays.copyOf(lists.get(0).ids, lists.get(0).size);
+        int length = result.length;
+        for (int i = 1; i < lists.size() && length > 0; i++) {
+            length = intersect(result, length, lists.get(i));
+        }
+        return Arrays.copyOf(result, length);
+    }
+
+    private int[] allDocs() {
+        int[] all = new int[isbns.size()];
+        for (int i = 0; i < all.length; i++) all[i] = i;
+        return all;
+    }
+
+    // Intersects the first length ids of result with the posting list in place and returns the new length.
+    private static int intersect(int[] result, int length, PostingList list) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < length && j < list.size; i++) {
+            int doc = result[i];
+            while (j < list.size && list.ids[j] < doc) j++;
+            if (j < list.size && list.ids[j] == doc) result[kept++] = doc;
+        }
+        return kept;
+    }
+
+    // Sum of the field weights of every term, plus how much of the title the terms cover.
+    // Zero when some term is not found in any field.
+    private double score(int doc, List<String> terms) {
+        String title = titles.get(doc);
+        double score = 0;
+        int titleCovered = 0;
+        for (String term : terms) {
+            double termScore = fieldScore(title, term, TITLE_WEIGHT)
+                    + fieldScore(authors.get(doc), term, AUTHOR_WEIGHT)
+                    + fieldScore(isbnTerms.get(doc), term, ISBN_WEIGHT);
+            if (termScore == 0) return 0;
+            if (title.contains(term)) titleCovered += term.length();
+            score += termScore;
+        }
+        if (!title.isEmpty()) score += TITLE_WEIGHT * Math.min(1.0, (double) titleCovered / title.length());
+        return score;
+    }
+
+    // Terms that start a word score higher than terms found in the middle of one.
+    private static double fieldScore(String field, String term, double weight) {
+        int at = field.indexOf(term);
+        if (at < 0) return 0;
+        boolean wordStart = at == 0 || !Character.isLetterOrDigit(field.charAt(at - 1));
+        return wordStart ? weight * WORD_START_BOOST : weight;
+    }
+
+    static boolean matchesAll(List<String> terms, String isbn, String title, String authors) {
+        String normalizedIsbn = normalize(isbn);
+        String normalizedTitle = normalize(title);
+        String normalizedAuthors = normalize(authors);
+        return terms.stream().allMatch(t -> normalizedTitle.contains(t)
+                || normalizedAuthors.contains(t) || normalizedIsbn.contains(t));
+    }
+
+    static List<String> terms(String query) {
+        return Arrays.stream(normalize(query).split("\\s+"))
+                .filter(t -> !t.isEmpty()).distinct().collect(Collectors.toList());
+    }
+
+    private static long gram(String s, int from) {
+        return ((long) s.charAt(from) << 32) | ((long) s.charAt(from + 1) << 16) | s.charAt(from + 2);
+    }
+
+    static String normalize(String s) {
+        return s == null ? "" : s.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class PostingList {
+        private int[] ids = new int[4];
+        private int size = 0;
+
+        private void add(int doc) {
+            if (size > 0 && ids[size - 1] == doc) return;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = doc;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.librarysystem.services;
+
+import com.librarysystem.models.CheckinResult;
+import com.librarysystem.models.Response;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Checkouts as one transaction per cart. The borrower's BORROWER.Active_loans counter is raised first
+// with a conditional UPDATE that fails past the limit; the row lock it takes makes two desks serving
+// the same borrower take turns. The books are claimed with one conditional UPDATE that only flips
+// books still available; if it changes fewer rows than the cart has books, another desk got one of
+// them first and the whole cart, counter included, is rolled back.
+@Service
+public class CirculationService {
+
+    static final int MAX_LOANS = 3;
+    private static final int LOAN_DAYS = 14;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    @Autowired
+    private SearchResultCache searchResultCache;
+
+    @Transactional
+    public Response checkout(List<String> selectedIsbns, String cardId) {
+        Set<String> isbns = new LinkedHashSet<>(selectedIsbns);
+        if (isbns.isEmpty()) return new Response("ISBN not provided");
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("cardId", cardId)
+                .addValue("isbns", isbns);
+        params.addValue("count", isbns.size()).addValue("maxLoans", MAX_LOANS);
+        int counted = jdbcTemplate.update("UPDATE BORROWER SET Active_loans = Active_loans + :count " +
+                "WHERE Card_id = :cardId AND Active_loans + :count <= :maxLoans", params);
+        if (counted == 0) {
+            Integer borrowers = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM BORROWER WHERE Card_id = :cardId", params, Integer.class);
+            if (borrowers == null || borrowers == 0) return new Response("Borrower not in the system");
+            return new Response("Each borrower can check out 3 books.");
+        }
+        int claimed = jdbcTemplate.update(
+                "UPDATE BOOK SET Available = 0 WHERE Isbn IN (:isbns) AND Available = 1", params);
+        if (claimed != isbns.size()) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return new Response("Selected book is not available");
+        }
+        LocalDate today = LocalDate.now();
+        List<MapSqlParameterSource> loans = new ArrayList<>();
+        isbns.forEach(isbn -> loans.add(new MapSqlParameterSource()
+                .addValue("isbn", isbn)
+                .addValue("cardId", cardId)
+                .addValue("dateOut", Date.valueOf(today))
+                .addValue("dueDate", Date.valueOf(today.plusDays(LOAN_DAYS)))));
+        jdbcTemplate.batchUpdate("INSERT INTO BOOK_LOANS (Isbn, Card_id, Date_out, Due_date) " +
+                "VALUES (:isbn, :cardId, :dateOut, :dueDate)", loans.toArray(MapSqlParameterSource[]::new));
+        isbns.forEach(this::bookChanged);
+        return new Response();
+    }
+
+    // Closes many loans at once: the loans are locked and read with one query, closed with one UPDATE,
+    // their books made available with another and the borrowers' counters lowered in one batch.
+    // Returns one result per requested loan, in request order.
+    @Transactional
+    public List<CheckinResult> checkin(List<Long> loanIds) {
+        Set<Long> ids = new LinkedHashSet<>(loanIds);
+        if (ids.isEmpty()) return new ArrayList<>();
+        Map<Long, String> errors = new HashMap<>();
+        ids.forEach(id -> errors.put(id, "No loans found!"));
+        List<Long> open = new ArrayList<>();
+        Set<String> isbns = new LinkedHashSet<>();
+        Map<String, Integer> returnsByBorrower = new HashMap<>();
+        jdbcTemplate.query("SELECT Loan_id, Isbn, Card_id, Date_in FROM BOOK_LOANS WHERE Loan_id IN (:ids) FOR UPDATE",
+                new MapSqlParameterSource("ids", ids), rs -> {
+                    long id = rs.getLong(1);
+                    if (rs.getDate(4) != null) {
+                        errors.put(id, "Book already checked in");
+                        return;
+                    }
+                    errors.remove(id);
+                    open.add(id);
+                    isbns.add(rs.getString(2));
+                    returnsByBorrower.merge(rs.getString(3), 1, Integer::sum);
+                });
+        if (!open.isEmpty()) {
+            jdbcTemplate.update("UPDATE BOOK_LOANS SET Date_in = :today WHERE Loan_id IN (:ids) AND Date_in IS NULL",
+                    new MapSqlParameterSource().addValue("ids", open).addValue("today", Date.valueOf(LocalDate.now())));
+            jdbcTemplate.update("UPDATE BOOK SET Available = 1 WHERE Isbn IN (:isbns)",
+                    new MapSqlParameterSource("isbns", isbns));
+            jdbcTemplate.batchUpdate("UPDATE BORROWER SET Active_loans = GREATEST(Active_loans - :count, 0) " +
+                    "WHERE Card_id = :cardId", returnsByBorrower.entrySet().stream()
+                    .map(e -> new MapSqlParameterSource().addValue("cardId", e.getKey()).addValue("count", e.getValue()))
+                    .toArray(MapSqlParameterSource[]::new));
+            isbns.forEach(this::bookChanged);
+        }
+        return ids.stream().map(id -> new CheckinResult(id, errors.get(id))).collect(Collectors.toList());
+    }
+
+    // Recounts every borrower's open loans and fixes the counters that drifted, e.g. from loans
+    // changed by hand in the database. Returns the number of borrowers corrected.
+    public int reconcileActiveLoans() {
+        return jdbcTemplate.getJdbcTemplate().update("UPDATE BORROWER SET Active_loans = " +
+                "(SELECT COUNT(*) FROM BOOK_LOANS AS l WHERE l.Card_id = BORROWER.Card_id AND l.Date_in IS NULL) " +
+                "WHERE Active_loans <> " +
+                "(SELECT COUNT(*) FROM BOOK_LOANS AS l WHERE l.Card_id = BORROWER.Card_id AND l.Date_in IS NULL)");
+    }
+
+    // Drops the cached search results that show the book once the transaction commits. Results cached
+    // on other nodes keep the old availability until they expire.
+    private void bookChanged(String isbn) {
+        Runnable evict = () -> searchResultCache.evictIsbn(isbn);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict.run();
+            }
+        });
+    }
+}
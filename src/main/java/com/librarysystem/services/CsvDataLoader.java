@@ -0,0 +1,209 @@
+package com.librarysystem.services;
+
+import com.librarysystem.db.dao.StoredBorrower;
+import com.librarysystem.models.Author;
+import com.librarysystem.models.Book;
+import com.librarysystem.models.ImportSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Seeds the database from the files in Data/ without going through HTTP:
+//   --load-books=Data/books.csv --load-borrowers=Data/borrowers.csv [--load-only]
+// The files are memory-mapped and cut into line-aligned chunks that are parsed in parallel, while the
+// parsed chunks are written in order through the batch importers. With --load-only the application
+// exits once the files are loaded. The catalog indexes are built from the database afterwards.
+@Component
+public class CsvDataLoader implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CsvDataLoader.class);
+    private static final long CHUNK_BYTES = 4 * 1024 * 1024;
+    private static final String NO_AUTHOR = "(None)";
+
+    @Autowired
+    private CatalogImporter catalogImporter;
+    @Autowired
+    private BorrowerImporter borrowerImporter;
+    @Autowired
+    private ApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (args.containsOption("load-books")) {
+            ImportSummary summary = loadBooks(Path.of(args.getOptionValues("load-books").get(0)));
+            log.info("Loaded {} of {} books ({} new authors, {} rows) in {} ms, {} rows/s", summary.getInserted(),
+                    summary.getBooks(), summary.getAuthorsCreated(), summary.getRows(), summary.getElapsedMillis(),
+                    Math.round(summary.getRowsPerSecond()));
+        }
+        if (args.containsOption("load-borrowers")) {
+            long start = System.currentTimeMillis();
+            int[] counts = loadBorrowers(Path.of(args.getOptionValues("load-borrowers").get(0)));
+            log.info("Loaded {} of {} borrowers in {} ms", counts[1], counts[0], System.currentTimeMillis() - start);
+        }
+        if (args.containsOption("load-only")) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+
+    public ImportSummary loadBooks(Path path) throws IOException {
+        long start = System.currentTimeMillis();
+        int[] totals = new int[4];
+        long[] rows = new long[1];
+        try (MappedCsv csv = new MappedCsv(path, '\t')) {
+            int isbn = csv.column("ISBN13");
+            int title = csv.column("Title");
+            int authors = csv.column("Authro");
+            int cover = csv.column("Cover");
+            int publisher = csv.column("Publisher");
+            int pages = csv.column("Pages");
+            Function<String[], Book> toBook = r -> new Book(field(r, isbn), field(r, title), field(r, cover),
+                    field(r, publisher), toInt(field(r, pages)), toAuthors(field(r, authors)), true, new ArrayList<>());
+            load(csv, toBook, books -> {
+                for (int from = 0; from < books.size(); from += catalogImporter.getChunkSize()) {
+                    List<Book> batch = books.subList(from, Math.min(from + catalogImporter.getChunkSize(), books.size()));
+                    totals[0] += batch.size();
+                    for (ImportSummary summary : importBooks(batch)) {
+                        totals[1] += summary.getInserted();
+                        totals[2] += summary.getAuthorsCreated();
+                        totals[3] += summary.getBooks();
+                        rows[0] += summary.getRows();
+                    }
+                }
+            });
+        }
+        if (totals[3] < totals[0]) log.warn("Rejected {} books that could not be stored", totals[0] - totals[3]);
+        return new ImportSummary(totals[0], totals[1], totals[0] - totals[1], totals[2], rows[0],
+                System.currentTimeMillis() - start);
+    }
+
+    // Imports the chunk in one transaction. If the chunk fails, e.g. on a value too long for its column,
+    // its books are retried one by one so that only the bad ones are lost, like StreamingBookImporter.
+    // The search indexes are rebuilt from the database once the application is ready.
+    private List<ImportSummary> importBooks(List<Book> batch) {
+        try {
+            return List.of(catalogImporter.importChunk(batch, imported -> { }));
+        } catch (DataAccessException e) {
+            List<ImportSummary> summaries = new ArrayList<>();
+            for (Book book : batch) {
+                try {
+                    summaries.add(catalogImporter.importChunk(List.of(book), imported -> { }));
+                } catch (DataAccessException bookFailure) {
+                    log.warn("Rejected book {}: {}", book.getIsbn(),
+                            NestedExceptionUtils.getMostSpecificCause(bookFailure).getMessage());
+                }
+            }
+            return summaries;
+        }
+    }
+
+    // Returns the number of borrowers read, written and rejected.
+    public int[] loadBorrowers(Path path) throws IOException {
+        int[] counts = new int[3];
+        try (MappedCsv csv = new MappedCsv(path, ',')) {
+            int cardId = csv.column("ID0000id");
+            int ssn = csv.column("ssn");
+            int firstName = csv.column("first_name");
+            int lastName = csv.column("last_name");
+            int email = csv.column("email");
+            int address = csv.column("address");
+            int city = csv.column("city");
+            int state = csv.column("state");
+            int phone = csv.column("phone");
+            Function<String[], StoredBorrower> toBorrower = r -> new StoredBorrower(field(r, cardId), field(r, ssn),
+                    field(r, firstName) + " " + field(r, lastName), field(r, email), field(r, address),
+                    field(r, state), field(r, city), field(r, phone));
+            load(csv, toBorrower, borrowers -> {
+                for (int from = 0; from < borrowers.size(); from += catalogImporter.getChunkSize()) {
+                    List<StoredBorrower> batch = borrowers.subList(from,
+                            Math.min(from + catalogImporter.getChunkSize(), borrowers.size()));
+                    counts[0] += batch.size();
+                    int[] imported = importBorrowers(batch);
+                    counts[1] += imported[0];
+                    counts[2] += imported[1];
+                }
+            });
+        }
+        if (counts[2] > 0) log.warn("Rejected {} borrowers that could not be stored", counts[2]);
+        return counts;
+    }
+
+    // Like importBooks, a failed chunk is retried borrower by borrower. Returns the number of borrowers
+    // written and rejected.
+    private int[] importBorrowers(List<StoredBorrower> batch) {
+        try {
+            return new int[]{borrowerImporter.importChunk(batch), 0};
+        } catch (DataAccessException e) {
+            int[] counts = new int[2];
+            for (StoredBorrower borrower : batch) {
+                try {
+                    counts[0] += borrowerImporter.importChunk(List.of(borrower));
+                } catch (DataAccessException borrowerFailure) {
+                    counts[1]++;
+                    log.warn("Rejected borrower {}: {}", borrower.getCardId(),
+                            NestedExceptionUtils.getMostSpecificCause(borrowerFailure).getMessage());
+                }
+            }
+            return counts;
+        }
+    }
+
+    // Parses the chunks on a pool, at most a few chunks ahead of the writer, and hands them to the
+    // writer in file order.
+    private static <T> void load(MappedCsv csv, Function<String[], T> mapper, Consumer<List<T>> writer) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            ArrayDeque<CompletableFuture<List<T>>> parsing = new ArrayDeque<>();
+            for (long[] chunk : csv.chunks(CHUNK_BYTES)) {
+                parsing.add(CompletableFuture.supplyAsync(() -> csv.parse(chunk).stream().map(mapper).toList(), pool));
+                if (parsing.size() > threads * 2) writer.accept(parsing.poll().join());
+            }
+            while (!parsing.isEmpty()) writer.accept(parsing.poll().join());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Same rules as Data/generate_insert_query.py: split on commas, skip empty names and the (None)
+    // placeholder, strip the rest.
+    static List<Author> toAuthors(String names) {
+        List<Author> authors = new ArrayList<>();
+        if (names == null) return authors;
+        for (String name : names.split(",")) {
+            if (name.isEmpty() || name.equals(NO_AUTHOR)) continue;
+            String stripped = name.strip();
+            if (!stripped.isEmpty()) authors.add(new Author(null, stripped));
+        }
+        return authors;
+    }
+
+    private static String field(String[] row, int column) {
+        return column < row.length ? row[column] : null;
+    }
+
+    private static int toInt(String value) {
+        try {
+            return value == null ? 0 : Integer.parseInt(value.strip());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
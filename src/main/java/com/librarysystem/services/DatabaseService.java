@@ -4,29 +4,52 @@ import com.librarysystem.db.dao.*;
 import com.librarysystem.db.repositories.AuthorRepository;
 import com.librarysystem.db.repositories.BookRepository;
 import com.librarysystem.db.repositories.BorrowerRepository;
+import com.librarysystem.db.repositories.ImportJobRepository;
 import com.librarysystem.db.repositories.LoanRepository;
 import com.librarysystem.models.Author;
 import com.librarysystem.models.Book;
+import com.librarysystem.models.BookSearchPage;
+import com.librarysystem.models.BookSummary;
 import com.librarysystem.models.Borrower;
+import com.librarysystem.models.BorrowerRegistration;
+import com.librarysystem.models.CatalogEntry;
+import com.librarysystem.models.CheckinResult;
+import com.librarysystem.models.EntityCacheStats;
 import com.librarysystem.models.FineSummary;
+import com.librarysystem.models.ImportReport;
+import com.librarysystem.models.ImportSummary;
+import com.librarysystem.models.LoanSummary;
+import com.librarysystem.models.RegistrationResult;
 import com.librarysystem.models.Response;
+import com.librarysystem.models.SearchCacheStats;
+import com.librarysystem.models.SearchHit;
 
+import jakarta.annotation.PostConstruct;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
-import java.sql.Date;
+import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class DatabaseService {
 
-    private static final long DAY_IN_MILLIS = 8_64_00_000L;
+    private static final int SEARCH_LIMIT = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int SUGGESTION_LIMIT = 10;
+    private static final int LOAN_SEARCH_LIMIT = 100;
 
     @Autowired
     private BookRepository bookRepository;
@@ -36,18 +59,68 @@ public class DatabaseService {
     private BorrowerRepository borrowerRepository;
     @Autowired
     private LoanRepository loanRepository;
-
-    Optional<Book> getBookById(String isbn) {
-        Optional<StoredBook> savedBook = bookRepository.findById(isbn);
-        return savedBook.map(DatabaseService::toBook);
+    @Autowired
+    private ImportJobRepository importJobRepository;
+    @Autowired
+    private List<SearchEngine> searchEngines;
+    @Autowired
+    private SearchResultCache searchResultCache;
+    @Autowired
+    private PrefixSuggester prefixSuggester;
+    @Autowired
+    private EntityCache entityCache;
+    @Autowired
+    private CatalogImporter catalogImporter;
+    @Autowired
+    private CirculationService circulationService;
+    @Autowired
+    private CardIdAllocator cardIdAllocator;
+    @Autowired
+    private StreamingBookImporter streamingBookImporter;
+    @Autowired
+    private BorrowerRegistrar borrowerRegistrar;
+    @Autowired
+    private SsnFilter ssnFilter;
+    @Autowired
+    private FineJob fineJob;
+    @Autowired
+    private FineLedger fineLedger;
+    @Value("${librarysystem.search.engine:index}")
+    private String searchEngineName;
+    private SearchEngine searchEngine;
+
+    @PostConstruct
+    void selectSearchEngine() {
+        searchEngine = searchEngines.stream()
+                .filter(e -> e.getName().equalsIgnoreCase(searchEngineName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Unknown search engine: " + searchEngineName));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadCatalog() {
+        List<CatalogEntry> entries = bookRepository.getCatalogEntries();
+        searchEngine.rebuild(entries);
+        prefixSuggester.rebuild(entries);
+        circulationService.reconcileActiveLoans();
+        ssnFilter.rebuild();
+        fineLedger.reconcile();
+    }
+
+    // Loans and their borrowers come with the book, the authors and the availability with one more
+    // select each. Availability is not on the cached entity.
+    @Transactional
+    public Optional<Book> getBookById(String isbn) {
+        Optional<StoredBook> savedBook = bookRepository.findDetailByIsbn(isbn);
+        return savedBook.map(sb -> toBook(sb, bookRepository.isAvailable(isbn)));
     }
 
     // TODO: populate this with borrowers
-    static Book toBook(StoredBook sb) {
+    static Book toBook(StoredBook sb, boolean available) {
         List<Borrower> borrowers = sb.getLoans().stream()
                 .map(StoredLoan::getBorrower).distinct().map(DatabaseService::toBorrower).toList();
         return new Book(sb.getIsbn(), sb.getTitle(), sb.getCoverUrl(), sb.getPublisher(), sb.getPages(),
-                toAuthors(sb.getAuthors()), sb.isAvailable(), borrowers);
+                toAuthors(sb.getAuthors()), available, borrowers);
     }
 
     private static List<Author> toAuthors(List<StoredAuthor> storedAuthors) {
@@ -63,12 +136,32 @@ public class DatabaseService {
             checkAndAddBook(sa, storedBook);
             authorRepository.save(sa);
         });
-        return DatabaseService.toBook(bookRepository.save(storedBook));
+        StoredBook savedBook = bookRepository.saveAndFlush(storedBook);
+        bookRepository.setAvailable(book.getIsbn(), book.isAvailable());
+        Book saved = DatabaseService.toBook(savedBook, book.isAvailable());
+        bookAdded(saved);
+        return saved;
     }
 
-    @Transactional
-    Book saveBook(StoredBook sb) {
-        return DatabaseService.toBook(bookRepository.save(sb));
+    // Makes a new book searchable.
+    private void bookAdded(Book book) {
+        String authorNames = indexBook(book);
+        searchResultCache.evictMatching(book.getIsbn(), book.getTitle(), authorNames);
+    }
+
+    // Imported chunks clear the result cache once instead of matching every book against every entry.
+    private void booksAdded(List<Book> books) {
+        if (books.size() == 1) bookAdded(books.get(0));
+        if (books.size() <= 1) return;
+        books.forEach(this::indexBook);
+        searchResultCache.clear();
+    }
+
+    private String indexBook(Book book) {
+        String authorNames = book.getAuthors().stream().map(Author::getName).collect(Collectors.joining(","));
+        searchEngine.add(book.getIsbn(), book.getTitle(), authorNames);
+        prefixSuggester.add(book.getTitle(), authorNames);
+        return authorNames;
     }
 
     private static void checkAndAddBook(StoredAuthor sa, StoredBook sb) {
@@ -80,7 +173,7 @@ public class DatabaseService {
     private static StoredBook toStoredBook(Book book) {
         return new StoredBook(book.getIsbn(), book.getTitle(),
                 book.getCoverUrl(), book.getPublisher(), book.getPages(),
-                null, null, book.isAvailable());
+                null, new ArrayList<>());
     }
 
     private List<StoredAuthor> getOrCreateAuthors(List<Author> authors) {
@@ -97,116 +190,104 @@ public class DatabaseService {
         return new Author(sa.getId(), sa.getName());
     }
 
-    public List<Book> getBookByIsbn(String searchQuery) {
-        List<StoredBook> matchingBooks = bookRepository.getBooksMatchingId(searchQuery);
-        return matchingBooks.stream().map(DatabaseService::toBook).collect(Collectors.toList());
+    @Transactional
+    public Book addBook(final Book book) {
+        Optional<Book> savedBook = getBookById(book.getIsbn());
+        return savedBook.orElseGet(() -> saveBook(book));
     }
 
-    public Optional<StoredBook> getBookByExactIsbn(String isbn) {
-        return bookRepository.getBookByIsbn(isbn);
+    public boolean addBooks(final List<Book> books) {
+        importBooks(books);
+        return true;
     }
 
-    public List<Book> getBooksByTitle(String searchQuery) {
-        List<StoredBook> matchingBooks = bookRepository.getBooksMatchingTitle(searchQuery);
-        return matchingBooks.stream().map(DatabaseService::toBook).collect(Collectors.toList());
+    public ImportSummary importBooks(List<Book> books) {
+        return catalogImporter.importBooks(books, this::booksAdded);
     }
 
-    public List<Book> getBooksByAuthors(String searchQuery) {
-        List<StoredAuthor> matchingAuthors = authorRepository.getAuthorsMatchingName(searchQuery);
-        return matchingAuthors.stream().map(StoredAuthor::getBooks).flatMap(Collection::stream)
-                .map(DatabaseService::toBook).collect(Collectors.toList());
+    // Starts an import job, or resumes one when jobId is given.
+    public ImportReport importBooks(InputStream in, Long jobId) {
+        return streamingBookImporter.importBooks(in, jobId, this::booksAdded);
     }
 
-    public Book addBook(final Book book) {
-        Optional<Book> savedBook = getBookById(book.getIsbn());
-        return savedBook.orElseGet(() -> saveBook(book));
+    public Optional<StoredImportJob> getImportJob(long jobId) {
+        return importJobRepository.findById(jobId);
     }
 
-    public boolean addBooks(final List<Book> books) {
-        books.forEach(this::addBook);
-        return true;
+    // Books matching every term of the query, best match first.
+    public List<BookSummary> getBooksForSearchQuery(String searchQuery) {
+        List<String> terms = CatalogIndex.terms(searchQuery);
+        if (terms.isEmpty()) return new ArrayList<>();
+        String cacheKey = SearchResultCache.key(terms);
+        List<BookSummary> cached = searchResultCache.get(cacheKey);
+        if (cached != null) return cached;
+        long generation = searchResultCache.getGeneration();
+        List<SearchHit> hits = searchEngine.search(searchQuery, null, SEARCH_LIMIT, false);
+        // nothing matched exactly, retry allowing typos
+        if (hits.isEmpty() && searchEngine.supportsFuzzy()) {
+            hits = searchEngine.search(searchQuery, null, SEARCH_LIMIT, true);
+        }
+        List<BookSummary> result = getBookSummaries(hits.stream().map(SearchHit::getIsbn).collect(Collectors.toList()));
+        searchResultCache.put(cacheKey, terms, result, generation);
+        return result;
     }
 
-    // TODO: Put these in a single query.
-    public List<Book> getBooksForSearchQuery(String searchQuery) {
-        List<Book> result = new ArrayList<>();
-        result.addAll(getBooksByTitle(searchQuery));
-        result.addAll(getBooksByAuthors(searchQuery));
-        result.addAll(getBookByIsbn(searchQuery));
-        return result.stream().distinct().collect(Collectors.toList());
+    public List<String> getSuggestions(String prefix) {
+        return prefixSuggester.suggest(prefix, SUGGESTION_LIMIT);
     }
 
-    // TODO: batch update?
-    public Response checkout(List<String> selectedISBN, String borrowerId) {
-        if (selectedISBN.isEmpty()) return new Response("ISBN not provided");
-        // check if borrower exist
-        Optional<StoredBorrower> storedBorrower = borrowerRepository.findById(borrowerId);
-        if (storedBorrower.isEmpty()) return new Response("Borrower not in the system");
-        List<StoredBook> books = selectedISBN.stream()
-                .map(this::getBookByExactIsbn)
-                .filter(Optional::isPresent)
-                .filter(b -> b.get().isAvailable())
-                .map(Optional::get)
-                .toList();
-        // check if the borrower can borrow the number of books requested
-        if (storedBorrower.get().getLoans()
-                .stream().filter(sl -> sl.getDateIn() == null).count() + books.size() > 3) {
-                     return new Response("Each borrower can check out 3 books.");
-                }
-        // check if all the books requested are available or not
-        if (books.size() != selectedISBN.size()) {
-            return new Response("Selected book is not available");
-        }
-        // handle checkout
-        handleCheckout(books, storedBorrower.get());
-        return new Response();
+    public SearchCacheStats getSearchCacheStats() {
+        return searchResultCache.getStats();
     }
 
-    @Transactional
-    private void handleCheckout(List<StoredBook> books, StoredBorrower borrower) {
-        Date dateOut = new Date(System.currentTimeMillis());
-        Date dueDate = new Date(dateOut.getTime() + 14 * DAY_IN_MILLIS);
-        books.forEach(b -> {
-            StoredLoan newLoan = new StoredLoan(null, b, borrower, dateOut, dueDate, null, null);
-            b.setAvailable(false);
-            b.getLoans().add(new StoredLoan(null, b, borrower, dateOut, dueDate, null, null));
-            borrower.getLoans().add(newLoan);
-            saveBook(b);
-        });
+    public EntityCacheStats getEntityCacheStats() {
+        return entityCache.getStats();
     }
 
-    public List<StoredLoan> getBookLoansForSearchQuery(String searchQuery) {
-        List<StoredLoan> result = new ArrayList<>();
-        result.addAll(getLoansByMatchingIsbn(searchQuery));
-        result.addAll(getLoansByMatchingBorrowerId(searchQuery));
-        result.addAll(getLoansByBorrowerName(searchQuery));
-        return result;
+    // One keyset page of ranked hits. The cursor of the last hit fetches the next page.
+    public BookSearchPage searchBooks(String searchQuery, String cursor, int limit, boolean fuzzy) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        SearchHit after = cursor == null || cursor.isEmpty() ? null : SearchHit.fromCursor(cursor);
+        List<SearchHit> hits = searchEngine.search(searchQuery, after, pageSize, fuzzy && searchEngine.supportsFuzzy());
+        String nextCursor = hits.size() == pageSize ? hits.get(hits.size() - 1).toCursor() : null;
+        return new BookSearchPage(hits, nextCursor);
     }
 
-    private List<StoredLoan> getLoansByBorrowerName(String searchQuery) {
-        return borrowerRepository.getLoanByMatchingBorrowerName(searchQuery)
-                .stream()
-                .map(StoredBorrower::getLoans)
-                .flatMap(Collection::stream)
-                .collect(Collectors.toList());
+    // Summaries of the given books, in the same order as the ISBNs.
+    public List<BookSummary> getBookSummaries(List<String> isbns) {
+        if (isbns.isEmpty()) return new ArrayList<>();
+        Map<String, BookSummary> summaries = bookRepository.getBookSummaries(isbns).stream()
+                .collect(Collectors.toMap(BookSummary::getIsbn, Function.identity()));
+        return isbns.stream().map(summaries::get).filter(Objects::nonNull).collect(Collectors.toList());
     }
 
-    private List<StoredLoan> getLoansByMatchingBorrowerId(String searchQuery) {
-        return loanRepository.getLoanByMatchingBorrowerId(searchQuery);
+    public Response checkout(List<String> selectedISBN, String borrowerId) {
+        if (selectedISBN.isEmpty()) return new Response("ISBN not provided");
+        try {
+            return circulationService.checkout(selectedISBN, borrowerId);
+        } catch (PessimisticLockingFailureException e) {
+            return new Response("Checkout clashed with another desk, please try again.");
+        }
     }
 
-    private List<StoredLoan> getLoansByMatchingIsbn(String searchQuery) {
-        return loanRepository.getLoanByMatchingIsbn(searchQuery);
+    // First page of loans whose ISBN, card ID or borrower name contain the query.
+    public List<LoanSummary> getBookLoansForSearchQuery(String searchQuery, boolean openOnly) {
+        return searchLoans(searchQuery, openOnly, 0, LOAN_SEARCH_LIMIT);
+    }
+
+    // Loans ordered by ID; pass the last loan ID of a page to get the next one.
+    public List<LoanSummary> searchLoans(String searchQuery, boolean openOnly, long afterLoanId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return loanRepository.searchLoans(CatalogIndex.normalize(searchQuery), openOnly, afterLoanId, pageSize);
     }
 
-    @Transactional
     public Response checkin(long loanId) {
-        Optional<StoredLoan> loan = loanRepository.getLoanById(loanId)
-                .filter(l -> l.getDateIn() == null);
-        if (loan.isEmpty()) return new Response("No loans found!");
-        loan.get().setDateIn(new Date(System.currentTimeMillis()));
-        loanRepository.save(loan.get());
-        return new Response();
+        CheckinResult result = circulationService.checkin(List.of(loanId)).get(0);
+        return result.isSuccess() ? new Response() : new Response(result.getErrorMessage());
+    }
+
+    public List<CheckinResult> checkin(List<Long> loanIds) {
+        return circulationService.checkin(loanIds);
     }
 
     public Response registerBorrower(String ssn, String firstName, String lastName, String email, String address,
@@ -215,6 +296,7 @@ public class DatabaseService {
                 email, address, state, city, phone);
         try {
             StoredBorrower saved = registerBorrowerTransaction(sb);
+            ssnFilter.add(saved.getSsn());
             return new Response(true, String.format("Borrower created with card ID: %s", saved.getCardId()));
         } catch (DataIntegrityViolationException e) {
             return new Response("SSN Exists");
@@ -223,6 +305,10 @@ public class DatabaseService {
         }
     }
 
+    public List<RegistrationResult> registerBorrowers(List<BorrowerRegistration> borrowers) {
+        return borrowerRegistrar.register(borrowers);
+    }
+
     @Transactional
     private StoredBorrower registerBorrowerTransaction(StoredBorrower sb) {
         return borrowerRepository.save(sb);
@@ -233,32 +319,25 @@ public class DatabaseService {
     }
 
     private String generateCardId() {
-        String prefix = "ID";
-        int count = getBorrowerCount();
-        return String.format("%s%06d", prefix, count + 1);
+        return cardIdAllocator.next();
     }
 
     public Response updateFines() {
         try {
-            List<StoredLoan> overDueLoans = loanRepository.getOverdueLoans();
-            overDueLoans.stream()
-                    .peek(loan -> {
-                        if (loan.getFine() == null) {
-                            StoredFine fine = new StoredFine(loan, null, false);
-                            loan.setFine(fine);
-                        }
-                    })
-                    .filter(loan -> !loan.getFine().isPaid())
-                    .peek(loan -> loan.getFine().updateFine(loan.getDateIn(), loan.getDueDate()))
-                    .forEach(loan -> loanRepository.save(loan));
+            return fineJob.start()
+                    .map(runId -> new Response(true, String.format("Fine run %d started", runId)))
+                    .orElseGet(() -> new Response("Fines are already being updated."));
         } catch (Exception e) {
             return new Response("Error occured.");
         }
-        return new Response();
     }
 
-    public int getBorrowerCount() {
-        return borrowerRepository.getCount();
+    public Optional<StoredFineRun> getFineRun(long runId) {
+        return fineJob.getRun(runId);
+    }
+
+    public Optional<StoredFineRun> getLatestFineRun() {
+        return fineJob.getLatestRun();
     }
 
     public List<StoredLoan> getLoansByBorrowerId(String cardId) {
@@ -267,17 +346,15 @@ public class DatabaseService {
 
     @Transactional
     public Response handleFeePayment(long loanId) {
-        Optional<StoredLoan> loan = loanRepository.getLoanById(loanId);
-        loan = loan.filter(l -> l.getFine() != null)
-                .filter(l -> l.getDateIn() != null)
-                .filter(l -> !l.getFine().isPaid());
-        if (loan.isEmpty()) return new Response("No loans found!");
-        loan.get().getFine().setPaid(true);
-        loanRepository.save(loan.get());
+        if (!fineLedger.pay(loanId)) return new Response("No loans found!");
         return new Response();
     }
 
     public List<FineSummary> getFinesSummary() {
-        return loanRepository.getFineSummaries();
+        return fineLedger.getSummaries();
+    }
+
+    public long getFinesDueCents(String cardId) {
+        return fineLedger.getUnpaidCents(cardId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.librarysystem.services;
+
+import com.librarysystem.db.dao.StoredAuthor;
+import com.librarysystem.models.CacheRegionStats;
+import com.librarysystem.models.EntityCacheStats;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+// Hibernate second-level cache of book and author metadata. Writes made through Hibernate keep it
+// in sync; anything that changes the cached columns with plain SQL has to evict here. Availability is
+// not cached, so checkouts and check-ins leave it alone.
+@Component
+public class EntityCache {
+
+    static final String AUTHOR_BY_NAME_REGION = "query.author-by-name";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private SessionFactory sessionFactory;
+
+    @PostConstruct
+    void init() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    // After authors or their books were written with plain SQL: drops the cached book lists of the
+    // authors and the cached lookups by name, which may still say an author does not exist.
+    public void authorsChanged(Collection<Long> authorIds) {
+        if (authorIds.isEmpty()) return;
+        String role = StoredAuthor.class.getName() + ".books";
+        authorIds.forEach(id -> sessionFactory.getCache().evictCollectionData(role, id));
+        sessionFactory.getCache().evictQueryRegion(AUTHOR_BY_NAME_REGION);
+    }
+
+    public EntityCacheStats getStats() {
+        Statistics statistics = sessionFactory.getStatistics();
+        List<CacheRegionStats> regions = new ArrayList<>();
+        String[] names = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(names);
+        for (String name : names) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+            if (region == null) continue;
+            regions.add(new CacheRegionStats(name, region.getHitCount(), region.getMissCount(),
+                    region.getPutCount(), region.getElementCountInMemory()));
+        }
+        return new EntityCacheStats(statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount(),
+                statistics.getSecondLevelCachePutCount(), statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(), statistics.getPrepareStatementCount(), regions);
+    }
+}
@@ -0,0 +1,27 @@
+package com.librarysystem.services;
+
+import java.math.BigDecimal;
+
+// Fine amounts as long cents. DECIMAL(10,2) values convert to cents and back exactly, so totals are
+// summed as longs without the rounding drift of doubles. Fines are accrued in SQL by FineEngine; this
+// class only carries the daily rate and converts amounts read from the database.
+public final class FineCalculator {
+
+    public static final long CENTS_PER_DAY = 25;
+
+    private FineCalculator() {
+    }
+
+    // Throws ArithmeticException for amounts with more than two decimals.
+    public static long cents(BigDecimal amount) {
+        return amount.movePointRight(2).longValueExact();
+    }
+
+    public static BigDecimal amount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    public static String format(long cents) {
+        return amount(cents).toPlainString();
+    }
+}
@@ -0,0 +1,278 @@
+package com.librarysystem.services;
+
+import com.librarysystem.db.dao.StoredFineRun;
+import com.librarysystem.db.repositories.FineRunRepository;
+import com.librarysystem.models.FineAccrual;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs fine accrual on a schedule. A run splits BOOK_LOANS into ranges of loan IDs, stored as chunks in
+// FINE_RUN_CHUNK, and workers claim chunks one at a time with a conditional UPDATE. Each chunk is
+// accrued and marked done in its own transaction, so a failed chunk is retried on its own and a chunk
+// left behind by a dead node is claimed again after a timeout. Every node polls for a running run and
+// lends its workers, so the nodes share the work. The JOB_LEASE row keeps a second run from starting:
+// the node that starts a run hands the lease to the run, and whichever worker finishes a chunk renews
+// it, so the lease stays alive as long as any node is working on the run.
+@Component
+public class FineJob {
+
+    private static final Logger log = LoggerFactory.getLogger(FineJob.class);
+    private static final String LEASE = "FINES";
+    private static final String PENDING = "PENDING";
+    private static final String CLAIMABLE = "(Status = 'PENDING' OR (Status = 'RUNNING' " +
+            "AND Claimed_at < NOW() - INTERVAL :timeout SECOND)) AND Attempts < :maxAttempts";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private FineRunRepository fineRunRepository;
+    @Autowired
+    private FineEngine fineEngine;
+    @Autowired
+    private JobLease jobLease;
+    @Value("${librarysystem.fines.chunk-size:5000}")
+    private int chunkSize;
+    @Value("${librarysystem.fines.workers:4}")
+    private int workers;
+    @Value("${librarysystem.fines.lease-seconds:3600}")
+    private int leaseSeconds;
+    @Value("${librarysystem.fines.chunk-timeout-seconds:600}")
+    private int chunkTimeoutSeconds;
+    @Value("${librarysystem.fines.max-attempts:3}")
+    private int maxAttempts;
+
+    private ExecutorService pool;
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+
+    @PostConstruct
+    void init() {
+        pool = Executors.newFixedThreadPool(workers);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Scheduled(cron = "${librarysystem.fines.cron:0 0 0 * * *}")
+    public void scheduledRun() {
+        start().ifPresentOrElse(runId -> log.info("Started fine run {}", runId),
+                () -> log.info("Fine run skipped, another one holds the lease"));
+    }
+
+    @Scheduled(initialDelayString = "${librarysystem.fines.poll-ms:30000}",
+            fixedDelayString = "${librarysystem.fines.poll-ms:30000}")
+    public void joinRunning() {
+        fineRunRepository.findRunning().ifPresent(this::work);
+    }
+
+    // Starts a run in the background and returns its ID, or nothing if a run holds the lease. A run
+    // left RUNNING after its lease lapsed is continued instead of planning a new one.
+    public Optional<Long> start() {
+        if (!jobLease.acquire(LEASE, leaseSeconds)) return Optional.empty();
+        long runId;
+        try {
+            runId = fineRunRepository.findRunning().orElseGet(this::plan);
+        } catch (RuntimeException e) {
+            jobLease.release(LEASE);
+            throw e;
+        }
+        if (!jobLease.transfer(LEASE, holder(runId), leaseSeconds)) {
+            log.warn("Fine run {} lost the lease before it started", runId);
+        }
+        work(runId);
+        return Optional.of(runId);
+    }
+
+    public Optional<StoredFineRun> getRun(long runId) {
+        return fineRunRepository.findById(runId);
+    }
+
+    public Optional<StoredFineRun> getLatestRun() {
+        return fineRunRepository.findLatest();
+    }
+
+    private long plan() {
+        LocalDate since = fineEngine.getWatermark();
+        LocalDate today = LocalDate.now();
+        Map<String, Object> bounds = jdbcTemplate.queryForMap(
+                "SELECT MIN(Loan_id) AS low, MAX(Loan_id) AS high FROM BOOK_LOANS", new MapSqlParameterSource());
+        List<MapSqlParameterSource> chunks = new ArrayList<>();
+        if (bounds.get("low") != null) {
+            long low = ((Number) bounds.get("low")).longValue();
+            long high = ((Number) bounds.get("high")).longValue();
+            for (long first = low; first <= high; first += chunkSize) {
+                chunks.add(new MapSqlParameterSource()
+                        .addValue("chunkNo", chunks.size())
+                        .addValue("first", first)
+                        .addValue("last", Math.min(first + chunkSize - 1, high))
+                        .addValue("status", PENDING));
+            }
+        }
+        return transactionTemplate.execute(status -> {
+            StoredFineRun run = fineRunRepository.save(new StoredFineRun(Date.valueOf(since), Date.valueOf(today),
+                    chunks.size(), new Timestamp(System.currentTimeMillis())));
+            chunks.forEach(c -> c.addValue("runId", run.getId()));
+            jdbcTemplate.batchUpdate("INSERT INTO FINE_RUN_CHUNK (Run_id, Chunk_no, First_loan_id, Last_loan_id, Status) " +
+                    "VALUES (:runId, :chunkNo, :first, :last, :status)", chunks.toArray(MapSqlParameterSource[]::new));
+            return run.getId();
+        });
+    }
+
+    // Hands the run to this node's workers unless they are busy already.
+    private void work(long runId) {
+        if (!activeWorkers.compareAndSet(0, workers)) return;
+        for (int i = 0; i < workers; i++) {
+            pool.execute(() -> {
+                try {
+                    drain(runId);
+                } catch (RuntimeException e) {
+                    log.warn("Fine run {} worker stopped", runId, e);
+                } finally {
+                    activeWorkers.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    private void drain(long runId) {
+        StoredFineRun run = fineRunRepository.findById(runId).orElseThrow();
+        LocalDate since = run.getSince().toLocalDate();
+        LocalDate today = run.getAccruedOn().toLocalDate();
+        Optional<Map<String, Object>> chunk;
+        while ((chunk = claim(runId)).isPresent()) {
+            process(runId, chunk.get(), since, today);
+        }
+        finish(runId);
+    }
+
+    private Optional<Map<String, Object>> claim(long runId) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("runId", runId)
+                .addValue("owner", claimant())
+                .addValue("timeout", chunkTimeoutSeconds)
+                .addValue("maxAttempts", maxAttempts)
+                .addValue("limit", workers * 2);
+        // chunks whose every attempt timed out will not be claimed again
+        jdbcTemplate.update("UPDATE FINE_RUN_CHUNK SET Status = 'FAILED', Error = 'Timed out' WHERE Run_id = :runId " +
+                "AND Status = 'RUNNING' AND Claimed_at < NOW() - INTERVAL :timeout SECOND AND Attempts >= :maxAttempts", params);
+        while (true) {
+            List<Integer> candidates = jdbcTemplate.queryForList("SELECT Chunk_no FROM FINE_RUN_CHUNK " +
+                    "WHERE Run_id = :runId AND " + CLAIMABLE + " ORDER BY Chunk_no LIMIT :limit", params, Integer.class);
+            if (candidates.isEmpty()) return Optional.empty();
+            for (int chunkNo : candidates) {
+                params.addValue("chunkNo", chunkNo);
+                int claimed = jdbcTemplate.update("UPDATE FINE_RUN_CHUNK SET Status = 'RUNNING', Owner = :owner, " +
+                        "Attempts = Attempts + 1, Claimed_at = NOW() " +
+                        "WHERE Run_id = :runId AND Chunk_no = :chunkNo AND " + CLAIMABLE, params);
+                if (claimed == 1) {
+                    return Optional.of(jdbcTemplate.queryForMap("SELECT Chunk_no, First_loan_id, Last_loan_id " +
+                            "FROM FINE_RUN_CHUNK WHERE Run_id = :runId AND Chunk_no = :chunkNo", params));
+                }
+            }
+        }
+    }
+
+    private void process(long runId, Map<String, Object> chunk, LocalDate since, LocalDate today) {
+        long start = System.currentTimeMillis();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("runId", runId)
+                .addValue("chunkNo", chunk.get("Chunk_no"))
+                .addValue("owner", claimant())
+                .addValue("maxAttempts", maxAttempts);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                FineAccrual accrual = fineEngine.accrue(((Number) chunk.get("First_loan_id")).longValue(),
+                        ((Number) chunk.get("Last_loan_id")).longValue(), since, today);
+                params.addValue("elapsed", System.currentTimeMillis() - start)
+                        .addValue("created", accrual.getCreated())
+                        .addValue("updated", accrual.getUpdated());
+                // the claim timed out and another worker has the chunk now
+                if (jdbcTemplate.update("UPDATE FINE_RUN_CHUNK SET Status = 'DONE', Elapsed_ms = :elapsed, Error = NULL " +
+                        "WHERE Run_id = :runId AND Chunk_no = :chunkNo AND Owner = :owner AND Status = 'RUNNING'", params) == 0) {
+                    status.setRollbackOnly();
+                    return;
+                }
+                jdbcTemplate.update("UPDATE FINE_RUN SET Chunks_done = Chunks_done + 1, Created = Created + :created, " +
+                        "Updated = Updated + :updated WHERE Run_id = :runId", params);
+            });
+            // a lapsed lease lets start() run again; it continues this run rather than planning another
+            if (!jobLease.renew(LEASE, holder(runId), leaseSeconds)) {
+                log.warn("Fine run {} could not renew its lease after chunk {}", runId, chunk.get("Chunk_no"));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Fine run {} chunk {} failed", runId, chunk.get("Chunk_no"), e);
+            jdbcTemplate.update("UPDATE FINE_RUN_CHUNK SET Status = CASE WHEN Attempts >= :maxAttempts " +
+                    "THEN 'FAILED' ELSE 'PENDING' END, Error = :error " +
+                    "WHERE Run_id = :runId AND Chunk_no = :chunkNo AND Owner = :owner AND Status = 'RUNNING'",
+                    params.addValue("error", truncate(String.valueOf(e.getMessage()))));
+        }
+    }
+
+    // Closes the run once no chunk is left to do. Only one worker gets to change the status, and only a
+    // completed run moves the watermark.
+    private void finish(long runId) {
+        MapSqlParameterSource params = new MapSqlParameterSource("runId", runId);
+        Boolean finished = transactionTemplate.execute(status -> {
+            Map<String, Object> counts = jdbcTemplate.queryForMap("SELECT " +
+                    "SUM(CASE WHEN Status IN ('PENDING', 'RUNNING') THEN 1 ELSE 0 END) AS open, " +
+                    "SUM(CASE WHEN Status = 'FAILED' THEN 1 ELSE 0 END) AS failed " +
+                    "FROM FINE_RUN_CHUNK WHERE Run_id = :runId", params);
+            long open = counts.get("open") == null ? 0 : ((Number) counts.get("open")).longValue();
+            long failed = counts.get("failed") == null ? 0 : ((Number) counts.get("failed")).longValue();
+            if (open > 0) return false;
+            params.addValue("status", failed == 0 ? StoredFineRun.COMPLETED : StoredFineRun.FAILED)
+                    .addValue("error", failed == 0 ? null : failed + " chunks failed");
+            if (jdbcTemplate.update("UPDATE FINE_RUN SET Status = :status, Error = :error, Finished_at = CURRENT_TIMESTAMP " +
+                    "WHERE Run_id = :runId AND Status = 'RUNNING'", params) == 0) {
+                return false;
+            }
+            if (failed == 0) {
+                LocalDate accruedOn = jdbcTemplate.queryForObject("SELECT Accrued_on FROM FINE_RUN WHERE Run_id = :runId",
+                        params, Date.class).toLocalDate();
+                fineEngine.advanceWatermark(accruedOn);
+            }
+            return true;
+        });
+        if (Boolean.TRUE.equals(finished)) {
+            jobLease.release(LEASE);
+            log.info("Fine run {} {}", runId, params.getValue("status"));
+        }
+    }
+
+    // The lease holder of a run, the same on every node.
+    private static String holder(long runId) {
+        return "fine-run-" + runId;
+    }
+
+    // Workers on one node share the lease owner, so claims also name the thread.
+    private String claimant() {
+        return jobLease.getOwner() + "#" + Thread.currentThread().getName();
+    }
+
+    private static String truncate(String message) {
+        return message.length() > 1024 ? message.substring(0, 1024) : message;
+    }
+}
@@ -0,0 +1,80 @@
+package com.librarysystem.services;
+
+import com.librarysystem.models.FineSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Paid and unpaid fine totals per borrower in BORROWER_FINE_BALANCE. Accrual and payments move the
+// totals by the change they make, in the same transaction, so summaries read one row per borrower
+// instead of summing FINES. reconcile() recomputes the totals from FINES at startup.
+@Component
+public class FineLedger {
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Adds to the unpaid totals; the query must return Card_id and delta columns.
+    void addUnpaid(String deltas, MapSqlParameterSource params) {
+        jdbcTemplate.update("INSERT INTO BORROWER_FINE_BALANCE (Card_id, Unpaid_amt, Paid_amt) " +
+                "SELECT d.Card_id, d.delta, 0 FROM (" + deltas + ") AS d " +
+                "ON DUPLICATE KEY UPDATE Unpaid_amt = Unpaid_amt + d.delta", params);
+    }
+
+    // Marks the fine of a returned loan paid and moves its amount to the paid total. Runs in the
+    // caller's transaction; the fine stays locked until it commits.
+    public boolean pay(long loanId) {
+        MapSqlParameterSource params = new MapSqlParameterSource("loanId", loanId);
+        List<Map<String, Object>> fines = jdbcTemplate.queryForList("SELECT l.Card_id, f.Fine_amt FROM FINES AS f " +
+                "JOIN BOOK_LOANS AS l ON l.Loan_id = f.Loan_id " +
+                "WHERE f.Loan_id = :loanId AND f.Paid = 0 AND l.Date_in IS NOT NULL FOR UPDATE", params);
+        if (fines.isEmpty()) return false;
+        params.addValue("cardId", fines.get(0).get("Card_id")).addValue("amount", fines.get(0).get("Fine_amt"));
+        jdbcTemplate.update("UPDATE BORROWER_FINE_BALANCE SET Unpaid_amt = Unpaid_amt - :amount, " +
+                "Paid_amt = Paid_amt + :amount WHERE Card_id = :cardId", params);
+        jdbcTemplate.update("UPDATE FINES SET Paid = 1 WHERE Loan_id = :loanId", params);
+        return true;
+    }
+
+    public long getUnpaidCents(String cardId) {
+        List<BigDecimal> unpaid = jdbcTemplate.queryForList("SELECT Unpaid_amt FROM BORROWER_FINE_BALANCE WHERE Card_id = :cardId",
+                new MapSqlParameterSource("cardId", cardId), BigDecimal.class);
+        return unpaid.isEmpty() ? 0 : FineCalculator.cents(unpaid.get(0));
+    }
+
+    // One row per borrower and paid status with a non-zero total, ordered by card ID.
+    public List<FineSummary> getSummaries() {
+        List<FineSummary> summaries = new ArrayList<>();
+        jdbcTemplate.getJdbcTemplate().query("SELECT Card_id, Unpaid_amt, Paid_amt FROM BORROWER_FINE_BALANCE " +
+                "WHERE Unpaid_amt <> 0 OR Paid_amt <> 0 ORDER BY Card_id", rs -> {
+            long unpaid = FineCalculator.cents(rs.getBigDecimal(2));
+            long paid = FineCalculator.cents(rs.getBigDecimal(3));
+            if (unpaid != 0) summaries.add(new FineSummary(rs.getString(1), false, unpaid));
+            if (paid != 0) summaries.add(new FineSummary(rs.getString(1), true, paid));
+        });
+        return summaries;
+    }
+
+    // Recomputes every total from FINES, e.g. after fines were changed by hand in the database.
+    public void reconcile() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.getJdbcTemplate().update("INSERT INTO BORROWER_FINE_BALANCE (Card_id, Unpaid_amt, Paid_amt) " +
+                    "SELECT t.Card_id, t.unpaid, t.paid FROM (SELECT l.Card_id, " +
+                    "SUM(CASE WHEN f.Paid = 0 THEN f.Fine_amt ELSE 0 END) AS unpaid, " +
+                    "SUM(CASE WHEN f.Paid = 0 THEN 0 ELSE f.Fine_amt END) AS paid " +
+                    "FROM FINES AS f JOIN BOOK_LOANS AS l ON l.Loan_id = f.Loan_id GROUP BY l.Card_id) AS t " +
+                    "ON DUPLICATE KEY UPDATE Unpaid_amt = t.unpaid, Paid_amt = t.paid");
+            jdbcTemplate.getJdbcTemplate().update("DELETE FROM BORROWER_FINE_BALANCE WHERE Card_id NOT IN " +
+                    "(SELECT l.Card_id FROM FINES AS f JOIN BOOK_LOANS AS l ON l.Loan_id = f.Loan_id)");
+        });
+    }
+}
@@ -0,0 +1,125 @@
+package com.librarysystem.services;
+
+import com.librarysystem.models.CatalogEntry;
+import com.librarysystem.models.SearchHit;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Database full-text search. On MySQL this uses the FULLTEXT keys on BOOK.Title and AUTHORS.Name with
+// MATCH ... AGAINST, ranked by title relevance. On H2 it uses the built-in FT_SEARCH_DATA index, which
+// only matches whole words and does not rank. The relevance is cut to a fixed scale so pages can be
+// keyed on (score, ISBN) with exact comparisons.
+@Component
+public class FullTextSearchEngine implements SearchEngine {
+
+    // Shorter terms are below innodb_ft_min_token_size and are matched with LIKE instead.
+    private static final int MIN_TOKEN_LENGTH = 3;
+    private static final int SCORE_SCALE = 6;
+    // InnoDB's default stopword list; the FULLTEXT index never matches these, so they go to LIKE too.
+    private static final Set<String> STOPWORDS = Set.of("a", "about", "an", "are", "as", "at", "be", "by", "com",
+            "de", "en", "for", "from", "how", "i", "in", "is", "it", "la", "of", "on", "or", "that", "the", "this",
+            "to", "was", "what", "when", "where", "who", "will", "with", "und", "www");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    private boolean h2;
+
+    @PostConstruct
+    void detectDatabase() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        h2 = "H2".equalsIgnoreCase(product);
+    }
+
+    @Override
+    public String getName() {
+        return "fulltext";
+    }
+
+    @Override
+    public void rebuild(List<CatalogEntry> entries) {
+        if (!h2) return;
+        jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS FT_INIT FOR \"org.h2.fulltext.FullText.init\"");
+        jdbcTemplate.execute("CALL FT_INIT()");
+        Integer indexes = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM FT.INDEXES WHERE \"TABLE\" IN ('BOOK', 'AUTHORS')", Integer.class);
+        if (indexes == null || indexes == 0) {
+            jdbcTemplate.execute("CALL FT_CREATE_INDEX('PUBLIC', 'BOOK', 'TITLE')");
+            jdbcTemplate.execute("CALL FT_CREATE_INDEX('PUBLIC', 'AUTHORS', 'NAME')");
+        }
+    }
+
+    @Override
+    public List<SearchHit> search(String query, SearchHit after, int limit, boolean fuzzy) {
+        List<String> terms = CatalogIndex.terms(query);
+        if (terms.isEmpty()) return new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT Isbn, score FROM (SELECT b.Isbn AS Isbn, ");
+        if (h2) {
+            sql.append("0 AS score");
+        } else {
+            sql.append("CAST(MATCH(b.Title) AGAINST (?) AS DECIMAL(20, " + SCORE_SCALE + ")) AS score");
+            args.add(terms.stream().map(FullTextSearchEngine::word).collect(Collectors.joining(" ")));
+        }
+        sql.append(" FROM BOOK AS b WHERE ");
+        for (int i = 0; i < terms.size(); i++) {
+            if (i > 0) sql.append(" AND ");
+            appendTermCondition(sql, args, terms.get(i));
+        }
+        sql.append(") AS ranked");
+        if (after != null) {
+            BigDecimal score = BigDecimal.valueOf(after.getScore()).setScale(SCORE_SCALE, RoundingMode.HALF_UP);
+            sql.append(" WHERE score < ? OR (score = ? AND Isbn > ?)");
+            args.add(score);
+            args.add(score);
+            args.add(after.getIsbn());
+        }
+        sql.append(" ORDER BY score DESC, Isbn LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(),
+                (rs, row) -> new SearchHit(rs.getString(1), rs.getDouble(2)), args.toArray());
+    }
+
+    // The term must be in the title, the ISBN or the name of one of the authors.
+    private void appendTermCondition(StringBuilder sql, List<Object> args, String term) {
+        String word = word(term);
+        String like = "%" + LikeSearchEngine.escapeLike(term) + "%";
+        if (word.length() < MIN_TOKEN_LENGTH || STOPWORDS.contains(word)) {
+            sql.append("(LOWER(b.Title) LIKE ? OR LOWER(b.Isbn) LIKE ? OR b.Isbn IN (SELECT ba.Isbn " +
+                    "FROM BOOK_AUTHORS AS ba JOIN AUTHORS AS a ON ba.Author_id = a.Author_id " +
+                    "WHERE LOWER(a.Name) LIKE ?))");
+            args.add(like);
+            args.add(like);
+            args.add(like);
+        } else if (h2) {
+            sql.append("(b.Isbn IN (SELECT CAST(KEYS[1] AS VARCHAR) FROM FT_SEARCH_DATA(?, 0, 0) " +
+                    "WHERE \"TABLE\" = 'BOOK') OR LOWER(b.Isbn) LIKE ? OR b.Isbn IN (SELECT ba.Isbn " +
+                    "FROM BOOK_AUTHORS AS ba WHERE ba.Author_id IN (SELECT CAST(KEYS[1] AS BIGINT) " +
+                    "FROM FT_SEARCH_DATA(?, 0, 0) WHERE \"TABLE\" = 'AUTHORS')))");
+            args.add(word);
+            args.add(like);
+            args.add(word);
+        } else {
+            sql.append("(MATCH(b.Title) AGAINST (? IN BOOLEAN MODE) OR LOWER(b.Isbn) LIKE ? OR b.Isbn IN " +
+                    "(SELECT ba.Isbn FROM BOOK_AUTHORS AS ba JOIN AUTHORS AS a ON ba.Author_id = a.Author_id " +
+                    "WHERE MATCH(a.Name) AGAINST (? IN BOOLEAN MODE)))");
+            args.add(word + "*");
+            args.add(like);
+            args.add(word + "*");
+        }
+    }
+
+    // Strips the boolean mode operators so user input is always a plain word.
+    private static String word(String term) {
+        return term.replaceAll("[^\\p{L}\\p{Nd}]", "");
+    }
+}
@@ -0,0 +1,44 @@
+package com.librarysystem.services;
+
+import com.librarysystem.models.CatalogEntry;
+import com.librarysystem.models.SearchHit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// In-process trigram index. Searches go to the database until the index is built.
+@Component
+public class IndexSearchEngine implements SearchEngine {
+
+    @Autowired
+    private CatalogIndex catalogIndex;
+    @Autowired
+    private LikeSearchEngine likeSearchEngine;
+
+    @Override
+    public String getName() {
+        return "index";
+    }
+
+    @Override
+    public List<SearchHit> search(String query, SearchHit after, int limit, boolean fuzzy) {
+        if (!catalogIndex.isReady()) return likeSearchEngine.search(query, after, limit, false);
+        return fuzzy ? catalogIndex.fuzzySearch(query, after, limit) : catalogIndex.search(query, after, limit);
+    }
+
+    @Override
+    public boolean supportsFuzzy() {
+        return catalogIndex.isReady();
+    }
+
+    @Override
+    public void rebuild(List<CatalogEntry> entries) {
+        catalogIndex.rebuild(entries);
+    }
+
+    @Override
+    public void add(String isbn, String title, String authorNames) {
+        catalogIndex.add(isbn, title, authorNames);
+    }
+}
@@ -0,0 +1,65 @@
+package com.librarysystem.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+
+// Named leases in JOB_LEASE, so a job runs on one node at a time. A lease is taken with a conditional
+// UPDATE that only matches when it expired or is already ours, and it lapses on its own unless its
+// holder renews it. The node that took a lease can hand it to a holder shared by several nodes, such
+// as a run their workers cooperate on. Expiry uses the database clock, so the nodes' clocks do not
+// have to agree.
+@Component
+public class JobLease {
+
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public boolean acquire(String name, int seconds) {
+        MapSqlParameterSource params = params(name, seconds);
+        try {
+            jdbcTemplate.update("INSERT INTO JOB_LEASE (Name, Owner, Expires_at) VALUES (:name, '', NOW())", params);
+        } catch (DuplicateKeyException e) {
+            // the lease exists already
+        }
+        return jdbcTemplate.update("UPDATE JOB_LEASE SET Owner = :owner, Expires_at = NOW() + INTERVAL :seconds SECOND " +
+                "WHERE Name = :name AND (Expires_at <= NOW() OR Owner = :owner)", params) == 1;
+    }
+
+    // Passes a lease this node holds to another holder.
+    public boolean transfer(String name, String holder, int seconds) {
+        return jdbcTemplate.update("UPDATE JOB_LEASE SET Owner = :holder, " +
+                "Expires_at = NOW() + INTERVAL :seconds SECOND WHERE Name = :name AND Owner = :owner AND Expires_at > NOW()",
+                params(name, seconds).addValue("holder", holder)) == 1;
+    }
+
+    // Extends a lease that has not lapsed or been released; false when the holder no longer has it.
+    public boolean renew(String name, String holder, int seconds) {
+        return jdbcTemplate.update("UPDATE JOB_LEASE SET Expires_at = NOW() + INTERVAL :seconds SECOND " +
+                "WHERE Name = :name AND Owner = :holder AND Expires_at > NOW()",
+                params(name, seconds).addValue("holder", holder)) == 1;
+    }
+
+    // Frees the lease whoever holds it; used when the work it guarded has finished.
+    public void release(String name) {
+        jdbcTemplate.update("UPDATE JOB_LEASE SET Expires_at = NOW() WHERE Name = :name", params(name, 0));
+    }
+
+    private MapSqlParameterSource params(String name, int seconds) {
+        return new MapSqlParameterSource()
+                .addValue("name", name)
+                .addValue("owner", owner)
+                .addValue("seconds", seconds);
+    }
+}
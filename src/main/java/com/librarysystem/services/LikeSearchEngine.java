@@ -0,0 +1,50 @@
+package com.librarysystem.services;
+
+import com.librarysystem.models.SearchHit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Substring match with LIKE on title, ISBN and author names. Cannot use an index, so every search scans
+// the catalog. Results are unranked and paged by ISBN.
+@Component
+public class LikeSearchEngine implements SearchEngine {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public String getName() {
+        return "like";
+    }
+
+    @Override
+    public List<SearchHit> search(String query, SearchHit after, int limit, boolean fuzzy) {
+        List<String> terms = CatalogIndex.terms(query);
+        if (terms.isEmpty()) return new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT b.Isbn FROM BOOK AS b " +
+                "LEFT JOIN BOOK_AUTHORS AS ba ON b.Isbn = ba.Isbn " +
+                "LEFT JOIN AUTHORS AS a ON ba.Author_id = a.Author_id " +
+                "WHERE b.Isbn > ? GROUP BY b.Isbn, b.Title HAVING ");
+        List<Object> args = new ArrayList<>();
+        args.add(after == null ? "" : after.getIsbn());
+        for (int i = 0; i < terms.size(); i++) {
+            if (i > 0) sql.append(" AND ");
+            sql.append("(LOWER(b.Title) LIKE ? OR LOWER(b.Isbn) LIKE ? OR LOWER(GROUP_CONCAT(a.Name)) LIKE ?)");
+            String pattern = "%" + escapeLike(terms.get(i)) + "%";
+            args.add(pattern);
+            args.add(pattern);
+            args.add(pattern);
+        }
+        sql.append(" ORDER BY b.Isbn LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), (rs, row) -> new SearchHit(rs.getString(1), 0), args.toArray());
+    }
+
+    static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,135 @@
+package com.librarysystem.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// A delimited text file read through memory-mapped regions. The rows after the header are split into
+// line-aligned byte ranges that can be parsed independently, so a record must not span lines.
+// Quoting follows Python's csv module: a field that starts with a quote runs to the closing quote,
+// and a doubled quote inside it stands for one quote.
+final class MappedCsv implements AutoCloseable {
+
+    private static final int SCAN_WINDOW = 64 * 1024;
+
+    private final FileChannel channel;
+    private final char delimiter;
+    private final long size;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private final long dataStart;
+
+    MappedCsv(Path path, char delimiter) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.delimiter = delimiter;
+        this.size = channel.size();
+        this.dataStart = nextLine(0);
+        List<String[]> header = parse(0, dataStart);
+        if (!header.isEmpty()) {
+            String[] names = header.get(0);
+            for (int i = 0; i < names.length; i++) columns.put(names[i].trim(), i);
+        }
+    }
+
+    int column(String name) {
+        Integer at = columns.get(name);
+        if (at == null) throw new IllegalArgumentException("Missing column " + name);
+        return at;
+    }
+
+    // Byte ranges of about chunkBytes each, every one starting at the beginning of a line.
+    List<long[]> chunks(long chunkBytes) throws IOException {
+        List<long[]> chunks = new ArrayList<>();
+        long start = dataStart;
+        while (start < size) {
+            long end = start + chunkBytes >= size ? size : nextLine(start + chunkBytes);
+            chunks.add(new long[] { start, end });
+            start = end;
+        }
+        return chunks;
+    }
+
+    List<String[]> parse(long[] chunk) {
+        return parse(chunk[0], chunk[1]);
+    }
+
+    private List<String[]> parse(long start, long end) {
+        CharBuffer text;
+        try {
+            text = StandardCharsets.UTF_8.decode(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<String[]> rows = new ArrayList<>();
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            // one field
+            field.setLength(0);
+            if (text.charAt(i) == '"') {
+                i++;
+                while (i < length) {
+                    char c = text.charAt(i);
+                    if (c == '"') {
+                        if (i + 1 < length && text.charAt(i + 1) == '"') {
+                            field.append('"');
+                            i += 2;
+                            continue;
+                        }
+                        i++;
+                        break;
+                    }
+                    field.append(c);
+                    i++;
+                }
+            }
+            while (i < length && text.charAt(i) != delimiter && text.charAt(i) != '\n') {
+                field.append(text.charAt(i++));
+            }
+            boolean endOfLine = i >= length || text.charAt(i) == '\n';
+            if (endOfLine && field.length() > 0 && field.charAt(field.length() - 1) == '\r') {
+                field.setLength(field.length() - 1);
+            }
+            fields.add(field.toString());
+            i++;
+            if (endOfLine) {
+                if (fields.size() > 1 || !fields.get(0).isEmpty()) rows.add(fields.toArray(new String[0]));
+                fields.clear();
+            } else if (i >= length) {
+                // a delimiter right before the end of the range leaves one more, empty, field
+                fields.add("");
+                rows.add(fields.toArray(new String[0]));
+            }
+        }
+        return rows;
+    }
+
+    // Position just after the next newline at or after the given position, or the end of the file.
+    private long nextLine(long from) throws IOException {
+        long at = from;
+        while (at < size) {
+            long window = Math.min(SCAN_WINDOW, size - at);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, at, window);
+            for (int i = 0; i < window; i++) {
+                if (buffer.get(i) == '\n') return at + i + 1;
+            }
+            at += window;
+        }
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
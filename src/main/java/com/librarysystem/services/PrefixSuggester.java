@@ -0,0 +1,138 @@
+package com.librarysystem.services;
+
+import com.librarysystem.models.CatalogEntry;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Autocomplete over book titles and author names. Completions live in sorted parallel arrays, so every
+// completion of a prefix is one contiguous range found by binary search. Titles and names added after
+// the last build wait in a small sorted buffer until it is merged back into the arrays.
+@Component
+public class PrefixSuggester {
+
+    private static final int MERGE_THRESHOLD = 1024;
+    private static final Comparator<Suggestion> BY_WEIGHT = Comparator.comparingInt((Suggestion s) -> s.weight)
+            .thenComparing((Suggestion s) -> s.key, Comparator.reverseOrder());
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private String[] keys = new String[0];
+    private String[] displays = new String[0];
+    private int[] weights = new int[0];
+    private final TreeMap<String, Suggestion> pending = new TreeMap<>();
+
+    public void rebuild(List<CatalogEntry> entries) {
+        Map<String, Suggestion> suggestions = new HashMap<>();
+        entries.forEach(e -> collect(suggestions, e.getTitle(), e.getAuthors()));
+        lock.writeLock().lock();
+        try {
+            pending.clear();
+            load(new ArrayList<>(suggestions.values()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void add(String title, String authorNames) {
+        Map<String, Suggestion> suggestions = new HashMap<>();
+        collect(suggestions, title, authorNames);
+        lock.writeLock().lock();
+        try {
+            suggestions.values().forEach(s -> {
+                int at = Arrays.binarySearch(keys, s.key);
+                if (at >= 0) weights[at] += s.weight;
+                else pending.merge(s.key, s, (a, b) -> new Suggestion(a.key, a.display, a.weight + b.weight));
+            });
+            if (pending.size() >= MERGE_THRESHOLD) merge();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // The most frequent titles and author names starting with the prefix.
+    public List<String> suggest(String prefix, int limit) {
+        String key = CatalogIndex.normalize(prefix);
+        if (key.isEmpty() || limit <= 0) return Collections.emptyList();
+        String end = key + Character.MAX_VALUE;
+        PriorityQueue<Suggestion> top = new PriorityQueue<>(limit + 1, BY_WEIGHT);
+        lock.readLock().lock();
+        try {
+            int from = lowerBound(key);
+            int to = lowerBound(end);
+            for (int i = from; i < to; i++) {
+                if (top.size() == limit && weights[i] < top.peek().weight) continue;
+                offer(top, new Suggestion(keys[i], displays[i], weights[i]), limit);
+            }
+            pending.subMap(key, end).values().forEach(s -> offer(top, s, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Suggestion> result = new ArrayList<>(top);
+        result.sort(BY_WEIGHT.reversed());
+        return result.stream().map(s -> s.display).toList();
+    }
+
+    private static void offer(PriorityQueue<Suggestion> top, Suggestion suggestion, int limit) {
+        top.add(suggestion);
+        if (top.size() > limit) top.poll();
+    }
+
+    private static void collect(Map<String, Suggestion> suggestions, String title, String authorNames) {
+        collect(suggestions, title);
+        if (authorNames == null) return;
+        for (String name : authorNames.split(",")) collect(suggestions, name);
+    }
+
+    private static void collect(Map<String, Suggestion> suggestions, String display) {
+        String key = CatalogIndex.normalize(display);
+        if (key.isEmpty()) return;
+        suggestions.merge(key, new Suggestion(key, display.trim(), 1),
+                (a, b) -> new Suggestion(a.key, a.display, a.weight + b.weight));
+    }
+
+    private void merge() {
+        List<Suggestion> all = new ArrayList<>(keys.length + pending.size());
+        for (int i = 0; i < keys.length; i++) all.add(new Suggestion(keys[i], displays[i], weights[i]));
+        all.addAll(pending.values());
+        pending.clear();
+        load(all);
+    }
+
+    private void load(List<Suggestion> suggestions) {
+        suggestions.sort(Comparator.comparing(s -> s.key));
+        keys = new String[suggestions.size()];
+        displays = new String[suggestions.size()];
+        weights = new int[suggestions.size()];
+        for (int i = 0; i < suggestions.size(); i++) {
+            keys[i] = suggestions.get(i).key;
+            displays[i] = suggestions.get(i).display;
+            weights[i] = suggestions.get(i).weight;
+        }
+    }
+
+    private int lowerBound(String key) {
+        int at = Arrays.binarySearch(keys, key);
+        return at >= 0 ? at : -at - 1;
+    }
+
+    private static final class Suggestion {
+        private final String key;
+        private final String display;
+        private final int weight;
+
+        private Suggestion(String key, String display, int weight) {
+            this.key = key;
+            this.display = display;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.librarysystem.services;
+
+import com.librarysystem.models.CatalogEntry;
+import com.librarysystem.models.SearchHit;
+
+import java.util.List;
+
+// Backend behind book search, selected with librarysystem.search.engine.
+public interface SearchEngine {
+
+    // Value of librarysystem.search.engine that selects this engine.
+    String getName();
+
+    // Books matching every term of the query that come after the given hit (null for the first page).
+    // Ranking engines return the best match first; the LIKE engine is unranked and orders by ISBN.
+    List<SearchHit> search(String query, SearchHit after, int limit, boolean fuzzy);
+
+    default boolean supportsFuzzy() {
+        return false;
+    }
+
+    // Called once on startup with the whole catalog.
+    default void rebuild(List<CatalogEntry> entries) {
+    }
+
+    // Called after a book is saved.
+    default void add(String isbn, String title, String authorNames) {
+    }
+}
@@ -0,0 +1,140 @@
+package com.librarysystem.services;
+
+import com.librarysystem.models.BookSummary;
+import com.librarysystem.models.SearchCacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// LRU cache of book search results keyed by the normalized query. Every entry is also indexed by the
+// ISBNs it contains, so a change to one book only drops the entries that show it. Every eviction bumps
+// a generation counter; a result computed before an eviction is not cached, as it may predate it.
+@Component
+public class SearchResultCache {
+
+    @Value("${librarysystem.search.cache.max-size:1000}")
+    private int maxSize;
+    @Value("${librarysystem.search.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Set<String>> keysByIsbn = new HashMap<>();
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+    private long generation;
+
+    static String key(List<String> terms) {
+        List<String> sorted = new ArrayList<>(terms);
+        sorted.sort(null);
+        return String.join(" ", sorted);
+    }
+
+    public synchronized List<BookSummary> get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (entry.expiresAt < System.currentTimeMillis()) {
+            remove(key);
+            expirations++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.books;
+    }
+
+    // Read before running the search whose result is put.
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    public synchronized void put(String key, List<String> terms, List<BookSummary> books, long generation) {
+        if (maxSize <= 0 || generation != this.generation) return;
+        remove(key);
+        entries.put(key, new Entry(terms, List.copyOf(books), System.currentTimeMillis() + ttlSeconds * 1000));
+        books.forEach(b -> keysByIsbn.computeIfAbsent(b.getIsbn(), k -> new HashSet<>()).add(key));
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxSize) {
+            Map.Entry<String, Entry> evicted = eldest.next();
+            unlink(evicted.getKey(), evicted.getValue());
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    // Drops the entries that list the book, e.g. after its availability changed.
+    public synchronized void evictIsbn(String isbn) {
+        generation++;
+        Set<String> keys = keysByIsbn.remove(isbn);
+        if (keys == null) return;
+        new ArrayList<>(keys).forEach(key -> {
+            if (remove(key)) invalidations++;
+        });
+    }
+
+    // Drops the entries whose query would now also match the given book.
+    public synchronized void evictMatching(String isbn, String title, String authors) {
+        evictIsbn(isbn);
+        List<String> stale = new ArrayList<>();
+        entries.forEach((key, entry) -> {
+            if (CatalogIndex.matchesAll(entry.terms, isbn, title, authors)) stale.add(key);
+        });
+        stale.forEach(key -> {
+            if (remove(key)) invalidations++;
+        });
+    }
+
+    // Drops every entry, e.g. after a bulk import where matching each book against each entry costs more
+    // than recomputing the searches.
+    public synchronized void clear() {
+        generation++;
+        invalidations += entries.size();
+        entries.clear();
+        keysByIsbn.clear();
+    }
+
+    public synchronized SearchCacheStats getStats() {
+        return new SearchCacheStats(hits, misses, evictions, expirations, invalidations, entries.size());
+    }
+
+    private boolean remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) return false;
+        unlink(key, entry);
+        return true;
+    }
+
+    private void unlink(String key, Entry entry) {
+        entry.books.forEach(b -> {
+            Set<String> keys = keysByIsbn.get(b.getIsbn());
+            if (keys == null) return;
+            keys.remove(key);
+            if (keys.isEmpty()) keysByIsbn.remove(b.getIsbn());
+        });
+    }
+
+    private static final class Entry {
+        private final List<String> terms;
+        private final List<BookSummary> books;
+        private final long expiresAt;
+
+        private Entry(List<String> terms, List<BookSummary> books, long expiresAt) {
+            this.terms = terms;
+            this.books = books;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.librarysystem.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bloom filter of the SSNs in BORROWER. A miss means the SSN is certainly new, so only hits need to be
+// looked up in the database. About 10 bits and 7 probes per SSN give roughly 1% false hits. The
+// filter only saves lookups: an SSN missed while it is being rebuilt is still stopped by the unique
+// key on BORROWER.Ssn.
+@Component
+public class SsnFilter {
+
+    private static final int BITS_PER_ENTRY = 10;
+    private static final int PROBES = 7;
+    private static final int MIN_BITS = 1 << 16;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile AtomicLongArray bits;
+
+    // Sized for twice the current borrowers, so it stays accurate while they double.
+    public void rebuild() {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BORROWER", Integer.class);
+        long wanted = Math.max(MIN_BITS, 2L * BITS_PER_ENTRY * (count == null ? 0 : count));
+        int words = (int) (Math.min(1L << 31, Long.highestOneBit(wanted - 1) << 1) / 64);
+        AtomicLongArray filter = new AtomicLongArray(words);
+        jdbcTemplate.query("SELECT Ssn FROM BORROWER", rs -> { set(filter, rs.getString(1)); });
+        bits = filter;
+    }
+
+    public void add(String ssn) {
+        AtomicLongArray filter = bits;
+        if (filter != null) set(filter, ssn);
+    }
+
+    // False only when the SSN is certainly not registered. Before the first build everything may be.
+    public boolean mightContain(String ssn) {
+        AtomicLongArray filter = bits;
+        if (filter == null) return true;
+        long hash = hash(ssn);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long mask = filter.length() * 64L - 1;
+        for (int i = 0; i < PROBES; i++) {
+            long bit = (h1 + (long) i * h2) & mask;
+            if ((filter.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    private static void set(AtomicLongArray filter, String ssn) {
+        long hash = hash(ssn);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long mask = filter.length() * 64L - 1;
+        for (int i = 0; i < PROBES; i++) {
+            long bit = (h1 + (long) i * h2) & mask;
+            int word = (int) (bit >>> 6);
+            long flag = 1L << bit;
+            long current;
+            do {
+                current = filter.get(word);
+            } while ((current & flag) == 0 && !filter.compareAndSet(word, current, current | flag));
+        }
+    }
+
+    // 64 bit hash of the digits of the SSN, so 123-45-6789 and 123456789 probe the same bits.
+    private static long hash(String ssn) {
+        long h = 0;
+        for (int i = 0; i < ssn.length(); i++) {
+            char c = ssn.charAt(i);
+            if (c >= '0' && c <= '9') h = h * 10 + (c - '0');
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb53a5a6d9f0bL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,256 @@
+package com.librarysystem.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.librarysystem.db.dao.StoredImportJob;
+import com.librarysystem.db.repositories.ImportJobRepository;
+import com.librarysystem.models.Book;
+import com.librarysystem.models.ImportReport;
+import com.librarysystem.models.ImportSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Imports books from a JSON array or from newline delimited JSON without reading the whole body.
+// The request thread parses one book at a time and queues full batches; a writer thread imports them.
+// The queue holds only a couple of batches, so parsing waits whenever the database falls behind.
+//
+// Every import is a job in IMPORT_JOB. Each batch moves the job's checkpoint, the number of input
+// records dealt with, in the transaction that writes the batch. Sending the same input again with
+// the job ID skips the records before the checkpoint. Records that cannot be stored are appended to
+// the job's reject file with the reason.
+@Component
+public class StreamingBookImporter {
+
+    private static final int QUEUE_CAPACITY = 2;
+    private static final Batch END = new Batch(new ArrayList<>(), 0, 0);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private CatalogImporter catalogImporter;
+    @Autowired
+    private ImportJobRepository importJobRepository;
+    @Value("${librarysystem.import.reject-dir:imports}")
+    private String rejectDir;
+
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+
+    // Starts a new job when jobId is null, otherwise resumes the job from its checkpoint. A failed run
+    // is reported with status FAILED and the checkpoint to resume from.
+    public ImportReport importBooks(InputStream in, Long jobId, Consumer<List<Book>> imported) {
+        StoredImportJob job = jobId == null ? createJob()
+                : importJobRepository.findById(jobId)
+                        .orElseThrow(() -> new IllegalArgumentException("No import job " + jobId));
+        if (StoredImportJob.COMPLETED.equals(job.getStatus())) {
+            return new ImportReport(job.getId(), job.getStatus(), job.getCheckpoint(), 0, job.getRejectFile(),
+                    new ImportSummary(0, 0, 0, 0, 0, 0), new ArrayList<>(), null);
+        }
+        if (!running.add(job.getId())) throw new IllegalStateException("Import job " + job.getId() + " is running");
+        try {
+            importJobRepository.setStatus(job.getId(), StoredImportJob.RUNNING, null);
+            ImportReport report = run(in, job, imported);
+            importJobRepository.setStatus(job.getId(), StoredImportJob.COMPLETED, null);
+            return report;
+        } catch (IOException | RuntimeException e) {
+            String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            String error = message == null ? e.getClass().getSimpleName() : message.substring(0, Math.min(message.length(), 1024));
+            importJobRepository.setStatus(job.getId(), StoredImportJob.FAILED, error);
+            long checkpoint = importJobRepository.findById(job.getId()).map(StoredImportJob::getCheckpoint).orElse(0L);
+            return new ImportReport(job.getId(), StoredImportJob.FAILED, checkpoint, 0, job.getRejectFile(),
+                    null, new ArrayList<>(), error);
+        } finally {
+            running.remove(job.getId());
+        }
+    }
+
+    private StoredImportJob createJob() {
+        StoredImportJob job = importJobRepository.save(
+                new StoredImportJob(StoredImportJob.RUNNING, new Timestamp(System.currentTimeMillis())));
+        job.setRejectFile(Path.of(rejectDir, "import-" + job.getId() + "-rejects.ndjson").toString());
+        return importJobRepository.save(job);
+    }
+
+    private ImportReport run(InputStream in, StoredImportJob job, Consumer<List<Book>> imported) throws IOException {
+        long start = System.currentTimeMillis();
+        int batchSize = Math.max(1, catalogImporter.getChunkSize());
+        BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        List<ImportSummary> batches = new ArrayList<>();
+        int rejected = 0;
+        long position = 0;
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        try (JsonParser parser = objectMapper.getFactory().createParser(in);
+             RejectWriter rejects = new RejectWriter(Path.of(job.getRejectFile()))) {
+            Future<?> writing = writer.submit(() -> {
+                for (Batch batch = queue.take(); batch != END; batch = queue.take()) {
+                    batches.addAll(write(job.getId(), batch, imported, rejects));
+                }
+                return null;
+            });
+            Batch batch = new Batch(new ArrayList<>(batchSize), 0, 0);
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) token = parser.nextToken();
+            while (token != null && token != JsonToken.END_ARRAY) {
+                if (position < job.getCheckpoint()) {
+                    // committed by an earlier run
+                    parser.skipChildren();
+                } else {
+                    JsonNode record = objectMapper.readTree(parser);
+                    String reason = null;
+                    try {
+                        Book book = objectMapper.treeToValue(record, Book.class);
+                        reason = CatalogImporter.validate(book);
+                        if (reason == null) batch.books.add(book);
+                    } catch (JsonProcessingException e) {
+                        reason = e.getOriginalMessage();
+                    }
+                    if (reason != null) {
+                        rejects.write(record, reason);
+                        batch.rejected++;
+                        rejected++;
+                    }
+                    batch.end = position + 1;
+                    if (batch.books.size() == batchSize) {
+                        put(queue, batch, writing);
+                        batch = new Batch(new ArrayList<>(batchSize), batch.end, 0);
+                    }
+                }
+                position++;
+                token = parser.nextToken();
+            }
+            if (batch.end > job.getCheckpoint() && (!batch.books.isEmpty() || batch.rejected > 0)) {
+                put(queue, batch, writing);
+            }
+            put(queue, END, writing);
+            writing.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IllegalStateException("Import failed", e.getCause());
+        } finally {
+            writer.shutdownNow();
+        }
+        int books = batches.stream().mapToInt(ImportSummary::getBooks).sum();
+        int inserted = batches.stream().mapToInt(ImportSummary::getInserted).sum();
+        ImportSummary total = new ImportSummary(books, inserted, books - inserted,
+                batches.stream().mapToInt(ImportSummary::getAuthorsCreated).sum(),
+                batches.stream().mapToLong(ImportSummary::getRows).sum(), System.currentTimeMillis() - start);
+        return new ImportReport(job.getId(), StoredImportJob.COMPLETED, Math.max(position, job.getCheckpoint()),
+                rejected, job.getRejectFile(), total, batches, null);
+    }
+
+    // Writes a batch with its checkpoint. When the batch as a whole fails, its books are retried one
+    // by one and the ones that still fail are rejected, so one bad row does not stop the job.
+    private List<ImportSummary> write(long jobId, Batch batch, Consumer<List<Book>> imported, RejectWriter rejects)
+            throws IOException {
+        try {
+            return List.of(catalogImporter.importChunk(batch.books, imported,
+                    s -> importJobRepository.checkpoint(jobId, batch.end, s.getInserted(), s.getSkipped(), batch.rejected)));
+        } catch (DataAccessException e) {
+            List<ImportSummary> summaries = new ArrayList<>();
+            int rejected = batch.rejected;
+            for (int i = 0; i < batch.books.size(); i++) {
+                Book book = batch.books.get(i);
+                // the last book carries the batch checkpoint, the earlier ones only their counts
+                long checkpoint = i == batch.books.size() - 1 ? batch.end : 0;
+                int pending = rejected;
+                try {
+                    summaries.add(catalogImporter.importChunk(List.of(book), imported,
+                            s -> importJobRepository.checkpoint(jobId, checkpoint, s.getInserted(), s.getSkipped(), pending)));
+                    rejected = 0;
+                } catch (DataAccessException bookFailure) {
+                    rejects.write(objectMapper.valueToTree(book),
+                            NestedExceptionUtils.getMostSpecificCause(bookFailure).getMessage());
+                    rejected++;
+                }
+            }
+            if (rejected > 0) importJobRepository.checkpoint(jobId, batch.end, 0, 0, rejected);
+            return summaries;
+        }
+    }
+
+    // Waits for room in the queue, giving up if the writer has already stopped.
+    private static void put(BlockingQueue<Batch> queue, Batch batch, Future<?> writing)
+            throws InterruptedException, ExecutionException {
+        while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+            if (writing.isDone()) {
+                writing.get();
+                throw new IllegalStateException("Import writer stopped");
+            }
+        }
+    }
+
+    private static final class Batch {
+        private final List<Book> books;
+        // input position just after the last record of the batch
+        private long end;
+        private int rejected;
+
+        private Batch(List<Book> books, long end, int rejected) {
+            this.books = books;
+            this.end = end;
+            this.rejected = rejected;
+        }
+    }
+
+    // Appends {"reason": ..., "record": ...} lines. Rejects are written before their batch commits, so
+    // a crash between the two can list a record twice after the job is resumed.
+    private final class RejectWriter implements AutoCloseable {
+        private final Path path;
+        private JsonGenerator generator;
+
+        private RejectWriter(Path path) {
+            this.path = path;
+        }
+
+        private synchronized void write(JsonNode record, String reason) throws IOException {
+            if (generator == null) {
+                if (path.getParent() != null) Files.createDirectories(path.getParent());
+                OutputStream out = Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                generator = objectMapper.getFactory().createGenerator(out);
+                generator.setRootValueSeparator(null);
+            }
+            generator.writeStartObject();
+            generator.writeStringField("reason", reason);
+            generator.writeFieldName("record");
+            generator.writeTree(record);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            generator.flush();
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (generator != null) generator.close();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.librarysystem.db.repositories;
+
+import com.librarysystem.db.dao.StoredBook;
+import com.librarysystem.db.dao.StoredBorrower;
+import com.librarysystem.db.dao.StoredFine;
+import com.librarysystem.db.dao.StoredLoan;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The book detail and loans-by-borrower reads must stay one statement each however many loans there
+// are, fines and borrowers included.
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+class EntityGraphStatementsTest {
+
+    private static final String ISBN = "9780261103573";
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private LoanRepository loanRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        StoredBook book = entityManager.persist(
+                new StoredBook(ISBN, "The Fellowship of the Ring", null, null, 0, new ArrayList<>(), null));
+        Date out = Date.valueOf(LocalDate.of(2023, 1, 2));
+        Date due = Date.valueOf(LocalDate.of(2023, 1, 16));
+        for (int i = 0; i < 5; i++) {
+            StoredBorrower borrower = entityManager.persist(
+                    new StoredBorrower("ID00000" + i, "000-00-000" + i, "Borrower " + i, null, null, null, null, null));
+            StoredLoan loan = entityManager.persist(new StoredLoan(null, book, borrower, out, due, due, null));
+            entityManager.persist(new StoredFine(loan, 25 * (i + 1), false));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @Test
+    void bookDetailLoadsLoansBorrowersAndFinesInOneStatement() {
+        StoredBook book = bookRepository.findDetailByIsbn(ISBN).orElseThrow();
+        List<Long> fines = book.getLoans().stream()
+                .map(loan -> loan.getBorrower().getName().length() + loan.getFine().getFineCents()).toList();
+
+        assertThat(fines).hasSize(5);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void borrowerLoansLoadFinesInOneStatement() {
+        List<StoredLoan> loans = loanRepository.getLoansByBorrowerId("ID000003");
+        long cents = loans.stream().mapToLong(loan -> loan.getFine().getFineCents()).sum();
+
+        assertThat(cents).isEqualTo(100);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,161 @@
+package com.librarysystem.services;
+
+import com.librarysystem.models.Author;
+import com.librarysystem.models.CatalogEntry;
+import com.librarysystem.models.SearchHit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Search latency on Data/books.csv: the trigram index with exact and fuzzy matching against the LIKE
+// scan the index replaced, run on an in-memory H2 copy of the catalog. Run from the project root:
+//   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test.cp
+//   java -cp target/test-classes:target/classes:$(cat target/test.cp) com.librarysystem.services.CatalogSearchBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogSearchBenchmark {
+
+    private static final int LIMIT = 50;
+
+    // exact spelling and the typo the fuzzy search has to recover from
+    @Param({"tolkien|tolkein", "harry potter|harri poter", "pratchett discworld|pratchet discworld"})
+    private String queries;
+
+    private String exact;
+    private String misspelled;
+    private CatalogIndex catalogIndex;
+    private LikeSearchEngine likeSearchEngine;
+    private DriverManagerDataSource dataSource;
+
+    @Setup
+    public void setUp() throws IOException {
+        exact = queries.split("\\|")[0];
+        misspelled = queries.split("\\|")[1];
+        Map<String, String[]> books = readBooks(Path.of("Data/books.csv"));
+        catalogIndex = new CatalogIndex();
+        catalogIndex.rebuild(books.values().stream().map(CatalogSearchBenchmark::toEntry).collect(Collectors.toList()));
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:catalog;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        load(jdbcTemplate, books);
+        likeSearchEngine = new LikeSearchEngine();
+        ReflectionTestUtils.setField(likeSearchEngine, "jdbcTemplate", jdbcTemplate);
+    }
+
+    @TearDown
+    public void tearDown() {
+        new JdbcTemplate(dataSource).execute("SHUTDOWN");
+    }
+
+    @Benchmark
+    public List<SearchHit> indexExact() {
+        return catalogIndex.search(exact, null, LIMIT);
+    }
+
+    @Benchmark
+    public List<SearchHit> indexFuzzy() {
+        return catalogIndex.fuzzySearch(misspelled, null, LIMIT);
+    }
+
+    @Benchmark
+    public List<SearchHit> likeExact() {
+        return likeSearchEngine.search(exact, null, LIMIT, false);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CatalogSearchBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    // ISBN13 -> {isbn, title, comma separated authors}
+    private static Map<String, String[]> readBooks(Path path) throws IOException {
+        Map<String, String[]> books = new LinkedHashMap<>();
+        try (MappedCsv csv = new MappedCsv(path, '\t')) {
+            int isbn = csv.column("ISBN13");
+            int title = csv.column("Title");
+            int authors = csv.column("Authro");
+            for (long[] chunk : csv.chunks(4 * 1024 * 1024)) {
+                for (String[] row : csv.parse(chunk)) {
+                    if (row.length <= authors) continue;
+                    String names = CsvDataLoader.toAuthors(row[authors]).stream()
+                            .map(Author::getName).collect(Collectors.joining(","));
+                    books.putIfAbsent(row[isbn], new String[] {row[isbn], row[title], names});
+                }
+            }
+        }
+        return books;
+    }
+
+    private static void load(JdbcTemplate jdbcTemplate, Map<String, String[]> books) {
+        jdbcTemplate.execute("CREATE TABLE BOOK (Isbn VARCHAR(255) PRIMARY KEY, Title VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE AUTHORS (Author_id BIGINT PRIMARY KEY, Name VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE BOOK_AUTHORS (Isbn VARCHAR(255), Author_id BIGINT, PRIMARY KEY (Isbn, Author_id))");
+        Map<String, Long> authorIds = new HashMap<>();
+        List<Object[]> bookRows = new ArrayList<>();
+        List<Object[]> links = new ArrayList<>();
+        for (String[] book : books.values()) {
+            bookRows.add(new Object[] {book[0], book[1]});
+            if (book[2].isEmpty()) continue;
+            for (String name : new LinkedHashSet<>(Arrays.asList(book[2].split(",")))) {
+                links.add(new Object[] {book[0], authorIds.computeIfAbsent(name, n -> (long) authorIds.size() + 1)});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO BOOK (Isbn, Title) VALUES (?, ?)", bookRows);
+        jdbcTemplate.batchUpdate("INSERT INTO AUTHORS (Author_id, Name) VALUES (?, ?)", authorIds.entrySet().stream()
+                .map(e -> new Object[] {e.getValue(), e.getKey()}).collect(Collectors.toList()));
+        jdbcTemplate.batchUpdate("INSERT INTO BOOK_AUTHORS (Isbn, Author_id) VALUES (?, ?)", links);
+    }
+
+    private static CatalogEntry toEntry(String[] book) {
+        return new CatalogEntry() {
+            @Override
+            public String getIsbn() {
+                return book[0];
+            }
+
+            @Override
+            public String getTitle() {
+                return book[1];
+            }
+
+            @Override
+            public String getAuthors() {
+                return book[2];
+            }
+
+            @Override
+            public Boolean getAvailable() {
+                return true;
+            }
+        };
+    }
+}
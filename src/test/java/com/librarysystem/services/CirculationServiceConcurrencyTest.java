@@ -0,0 +1,171 @@
+package com.librarysystem.services;
+
+import com.librarysystem.models.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Desks racing checkouts on the same books and borrowers, each call in its own transaction on H2.
+// However the calls interleave, a book has at most one open loan and a borrower at most three.
+@JdbcTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:circulation;MODE=MySQL;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.maximum-pool-size=16"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CirculationService.class, SearchResultCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Sql("/circulation-schema.sql")
+class CirculationServiceConcurrencyTest {
+
+    private static final int THREADS = 12;
+    private static final int BOOKS = 6;
+    private static final int BORROWERS = 4;
+
+    @Autowired
+    private CirculationService circulationService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < BOOKS; i++) {
+            jdbcTemplate.update("INSERT INTO BOOK (Isbn, Title, Available) VALUES (?, ?, 1)", isbn(i), "Book " + i);
+        }
+        for (int i = 0; i < BORROWERS; i++) {
+            jdbcTemplate.update("INSERT INTO BORROWER (Card_id, Ssn, Bname, Email, Address, City, State, Phone) " +
+                    "VALUES (?, ?, 'Borrower', 'b@example.com', 'Street', 'City', 'TX', '555')", cardId(i), "ssn-" + i);
+        }
+    }
+
+    @Test
+    void oneDeskGetsTheBook() throws Exception {
+        List<Response> responses = race(IntStream.range(0, THREADS)
+                .mapToObj(t -> (Callable<Response>) () -> checkout(List.of(isbn(0)), cardId(t % BORROWERS)))
+                .collect(Collectors.toList()));
+
+        assertThat(responses.stream().filter(r -> r != null && r.isSuccess()).count()).isEqualTo(1);
+        assertInvariants();
+    }
+
+    @Test
+    void borrowerStopsAtThreeLoans() throws Exception {
+        List<Response> responses = race(IntStream.range(0, THREADS)
+                .mapToObj(t -> (Callable<Response>) () -> checkout(List.of(isbn(t % BOOKS)), cardId(0)))
+                .collect(Collectors.toList()));
+
+        assertThat(responses.stream().filter(r -> r != null && r.isSuccess()).count())
+                .isEqualTo(CirculationService.MAX_LOANS);
+        assertInvariants();
+    }
+
+    @Test
+    void checkoutsAndCheckinsInterleaved() throws Exception {
+        AtomicInteger checkedOut = new AtomicInteger();
+        race(IntStream.range(0, THREADS).mapToObj(t -> (Callable<Response>) () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 150; i++) {
+                String cardId = cardId(random.nextInt(BORROWERS));
+                if (random.nextInt(3) == 0) {
+                    List<Long> open = jdbcTemplate.queryForList(
+                            "SELECT Loan_id FROM BOOK_LOANS WHERE Card_id = ? AND Date_in IS NULL", Long.class, cardId);
+                    if (!open.isEmpty()) checkin(open.get(random.nextInt(open.size())));
+                    continue;
+                }
+                List<String> cart = new ArrayList<>();
+                for (int n = 1 + random.nextInt(2); n > 0; n--) cart.add(isbn(random.nextInt(BOOKS)));
+                Response response = checkout(cart, cardId);
+                if (response != null && response.isSuccess()) checkedOut.incrementAndGet();
+            }
+            return null;
+        }).collect(Collectors.toList()));
+
+        assertThat(checkedOut.get()).isPositive();
+        assertInvariants();
+    }
+
+    private void assertInvariants() {
+        assertThat(jdbcTemplate.queryForList("SELECT Isbn FROM BOOK_LOANS WHERE Date_in IS NULL " +
+                "GROUP BY Isbn HAVING COUNT(*) > 1", String.class)).isEmpty();
+        assertThat(jdbcTemplate.queryForList("SELECT Card_id FROM BORROWER WHERE Active_loans > ?",
+                String.class, CirculationService.MAX_LOANS)).isEmpty();
+        // the counters and the availability flags agree with the open loans
+        assertThat(jdbcTemplate.queryForList("SELECT Card_id FROM BORROWER AS br WHERE Active_loans <> " +
+                "(SELECT COUNT(*) FROM BOOK_LOANS AS l WHERE l.Card_id = br.Card_id AND l.Date_in IS NULL)",
+                String.class)).isEmpty();
+        assertThat(jdbcTemplate.queryForList("SELECT Isbn FROM BOOK AS b " +
+                "WHERE CASE WHEN Available = 0 THEN 1 ELSE 0 END <> (SELECT COUNT(*) FROM BOOK_LOANS AS l WHERE l.Isbn = b.Isbn AND l.Date_in IS NULL)",
+                String.class)).isEmpty();
+    }
+
+    // A clash that outlasts the lock timeout is what DatabaseService reports as "try again".
+    private Response checkout(List<String> isbns, String cardId) {
+        try {
+            return circulationService.checkout(isbns, cardId);
+        } catch (PessimisticLockingFailureException e) {
+            return null;
+        }
+    }
+
+    private void checkin(long loanId) {
+        try {
+            circulationService.checkin(List.of(loanId));
+        } catch (PessimisticLockingFailureException e) {
+            // a timed out check-in leaves the loan open, which is still consistent
+        }
+    }
+
+    // Starts the calls together and waits for all of them.
+    private static List<Response> race(List<Callable<Response>> calls) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(calls.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Response>> futures = new ArrayList<>();
+            for (Callable<Response> call : calls) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return call.call();
+                }));
+            }
+            start.countDown();
+            List<Response> responses = new ArrayList<>();
+            for (Future<Response> future : futures) responses.add(future.get(2, TimeUnit.MINUTES));
+            return responses;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static String isbn(int i) {
+        return "978000000000" + i;
+    }
+
+    private static String cardId(int i) {
+        return "ID00000" + i;
+    }
+}
@@ -0,0 +1,182 @@
+package com.librarysystem.services;
+
+import com.librarysystem.db.dao.StoredAuthor;
+import com.librarysystem.db.dao.StoredBook;
+import com.librarysystem.db.dao.StoredBorrower;
+import com.librarysystem.db.dao.StoredFine;
+import com.librarysystem.db.dao.StoredLoan;
+import com.librarysystem.models.Book;
+import com.librarysystem.models.BookSummary;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Statements per call of the DatabaseService reads and writes the desk uses most, counted on the JDBC
+// connections so Hibernate and JdbcTemplate statements both show up. Fine accrual is not here: it runs
+// on FineJob's workers with MySQL's multi-table UPDATE, which H2 does not have.
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:statements;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.defer-datasource-initialization=true",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.data-locations=classpath:statements-schema.sql"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({DatabaseService.class, CirculationService.class, FineLedger.class, IndexSearchEngine.class,
+        CatalogIndex.class, LikeSearchEngine.class, PrefixSuggester.class,
+        SearchResultCache.class, DatabaseServiceStatementsTest.CountingDataSource.class})
+class DatabaseServiceStatementsTest {
+
+    private static final String ISBN = "9780261103573";
+    private static final String OTHER_ISBN = "9780261102354";
+    private static final AtomicInteger statements = new AtomicInteger();
+
+    @Autowired
+    private DatabaseService databaseService;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @MockBean
+    private EntityCache entityCache;
+    @MockBean
+    private CatalogImporter catalogImporter;
+    @MockBean
+    private CardIdAllocator cardIdAllocator;
+    @MockBean
+    private StreamingBookImporter streamingBookImporter;
+    @MockBean
+    private BorrowerRegistrar borrowerRegistrar;
+    @MockBean
+    private SsnFilter ssnFilter;
+    @MockBean
+    private FineJob fineJob;
+
+    private final List<Long> loanIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        StoredAuthor author = entityManager.persist(new StoredAuthor(null, "J.R.R. Tolkien", null));
+        StoredBook book = new StoredBook(ISBN, "The Fellowship of the Ring", null, null, 0, List.of(author), new ArrayList<>());
+        StoredBook other = new StoredBook(OTHER_ISBN, "The Two Towers", null, null, 0, List.of(author), new ArrayList<>());
+        author.getBooks().addAll(List.of(entityManager.persist(book), entityManager.persist(other)));
+        Date out = Date.valueOf(LocalDate.of(2023, 1, 2));
+        Date due = Date.valueOf(LocalDate.of(2023, 1, 16));
+        for (int i = 0; i < 5; i++) {
+            StoredBorrower borrower = entityManager.persist(
+                    new StoredBorrower("ID00000" + i, "000-00-000" + i, "Borrower " + i, null, null, null, null, null));
+            StoredLoan loan = entityManager.persist(new StoredLoan(null, book, borrower, out, due, due, null));
+            entityManager.persist(new StoredFine(loan, 25 * (i + 1), false));
+            loanIds.add(loan.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        entityManagerFactory.getCache().evictAll();
+        databaseService.loadCatalog();
+        statements.set(0);
+    }
+
+    @Test
+    void searchListIsOneStatementAndNoneOnceCached() {
+        List<BookSummary> books = databaseService.getBooksForSearchQuery("tolkien");
+        assertThat(books).extracting(BookSummary::getIsbn).containsExactlyInAnyOrder(ISBN, OTHER_ISBN);
+        assertThat(statements.get()).isEqualTo(1);
+
+        databaseService.getBooksForSearchQuery("tolkien");
+        assertThat(statements.get()).isEqualTo(1);
+    }
+
+    // the book with its loans, borrowers and fines, then the authors, then the availability
+    @Test
+    void bookDetailIsThreeStatements() {
+        Book book = databaseService.getBookById(ISBN).orElseThrow();
+
+        assertThat(book.getAuthors()).hasSize(1);
+        assertThat(book.isAvailable()).isTrue();
+        assertThat(statements.get()).isEqualTo(3);
+    }
+
+    // the borrower's counter, the books and one batch of loans
+    @Test
+    void checkoutIsThreeStatements() {
+        assertThat(databaseService.checkout(List.of(OTHER_ISBN), "ID000000").isSuccess()).isTrue();
+        assertThat(statements.get()).isEqualTo(3);
+    }
+
+    // the fine locked and read, the balance moved to paid, the fine marked paid
+    @Test
+    void feePaymentIsThreeStatements() {
+        assertThat(databaseService.handleFeePayment(loanIds.get(2)).isSuccess()).isTrue();
+        assertThat(statements.get()).isEqualTo(3);
+        assertThat(databaseService.getFinesDueCents("ID000002")).isZero();
+    }
+
+    // Counts the statements prepared on every connection of the data source.
+    @TestConfiguration
+    static class CountingDataSource {
+
+        private static final Set<String> PREPARING = Set.of("prepareStatement", "prepareCall", "createStatement");
+
+        @Bean
+        static BeanPostProcessor countStatements() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource)) return bean;
+                    return proxy(DataSource.class, dataSource, (target, method, args) -> {
+                        Object result = invoke(method, target, args);
+                        if (!(result instanceof Connection connection)) return result;
+                        return proxy(Connection.class, connection, (c, m, a) -> {
+                            if (PREPARING.contains(m.getName())) statements.incrementAndGet();
+                            return invoke(m, c, a);
+                        });
+                    });
+                }
+            };
+        }
+
+        private static <T> T proxy(Class<T> type, T target, Handler<T> handler) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                    (p, method, args) -> handler.handle(target, method, args)));
+        }
+
+        private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private interface Handler<T> {
+            Object handle(T target, Method method, Object[] args) throws Throwable;
+        }
+    }
+}
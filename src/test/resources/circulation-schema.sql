@@ -0,0 +1,46 @@
+-- The circulation tables of Data/create_tables.sql in a form H2 accepts (no FULLTEXT keys). Loan IDs
+-- come from a sequence: H2's AUTO_INCREMENT can hand out a key twice when concurrent inserts roll back.
+DROP TABLE IF EXISTS BOOK_LOANS;
+DROP TABLE IF EXISTS BORROWER;
+DROP TABLE IF EXISTS BOOK;
+DROP SEQUENCE IF EXISTS LOAN_ID_SEQUENCE;
+CREATE SEQUENCE LOAN_ID_SEQUENCE;
+
+CREATE TABLE BOOK (
+  Isbn        VARCHAR(255)    NOT NULL,
+  Title       VARCHAR(255)    DEFAULT NULL,
+  Cover_url   VARCHAR(255)    DEFAULT NULL,
+  Publisher   VARCHAR(255)    DEFAULT NULL,
+  Pages       INT             DEFAULT 0,
+  Available   BIT             DEFAULT 1,
+  PRIMARY KEY (Isbn)
+);
+
+CREATE TABLE BORROWER (
+  Card_id     VARCHAR(255)    NOT NULL,
+  Ssn         VARCHAR(255)    NOT NULL,
+  Bname       VARCHAR(255)    NOT NULL,
+  Email       VARCHAR(255)    NOT NULL,
+  Address     VARCHAR(255)    NOT NULL,
+  City        VARCHAR(255)    NOT NULL,
+  State       VARCHAR(2)      NOT NULL,
+  Phone       VARCHAR(255)    NOT NULL,
+  Active_loans INT            NOT NULL    DEFAULT 0,
+  PRIMARY KEY (Card_id),
+  CONSTRAINT ssn_key UNIQUE (Ssn)
+);
+
+CREATE TABLE BOOK_LOANS (
+  Loan_id     BIGINT          NOT NULL    DEFAULT NEXT VALUE FOR LOAN_ID_SEQUENCE,
+  Isbn        VARCHAR(255)    NOT NULL,
+  Card_id     VARCHAR(255)    NOT NULL,
+  Date_out    DATE            NOT NULL,
+  Due_date    DATE            NOT NULL,
+  Date_in     DATE,
+  PRIMARY KEY (Loan_id),
+  CONSTRAINT borrower_foreign_key FOREIGN KEY (Card_id) REFERENCES BORROWER (Card_id),
+  CONSTRAINT loan_book_foreign_key FOREIGN KEY (Isbn) REFERENCES BOOK (Isbn),
+  CHECK (Due_date > Date_out),
+  CHECK (Date_in >= Date_out)
+);
+CREATE INDEX loan_date_in ON BOOK_LOANS (Date_in);
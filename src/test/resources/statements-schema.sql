@@ -0,0 +1,10 @@
+-- What Data/create_tables.sql has beyond the entities: the columns they leave unmapped and the fine
+-- balances. Runs after Hibernate has created the tables from the entities.
+ALTER TABLE BOOK ADD COLUMN IF NOT EXISTS Available BIT NOT NULL DEFAULT 1;
+ALTER TABLE BORROWER ADD COLUMN IF NOT EXISTS Active_loans INT NOT NULL DEFAULT 0;
+CREATE TABLE IF NOT EXISTS BORROWER_FINE_BALANCE (
+  Card_id     VARCHAR(255)    NOT NULL,
+  Unpaid_amt  DECIMAL(10,2)   NOT NULL    DEFAULT 0,
+  Paid_amt    DECIMAL(10,2)   NOT NULL    DEFAULT 0,
+  PRIMARY KEY (Card_id)
+);